@@ -5,6 +5,9 @@ import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import net.fabricmc.fabric.api.command.v1.CommandRegistrationCallback;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
@@ -30,11 +33,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class BeastCommand implements Command<ServerCommandSource> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger("BeastMaster");
 
+    // Tab completion from the registry's per-owner name index
+    private static final SuggestionProvider<ServerCommandSource> PET_NAMES = (context, builder) -> suggestNames(context, builder, true);
+    private static final SuggestionProvider<ServerCommandSource> MOUNT_NAMES = (context, builder) -> suggestNames(context, builder, false);
+
     public static void register() {
         CommandRegistrationCallback.EVENT.register((dispatcher, dedicated) -> {
             dispatcher.register(CommandManager.literal("beast")
@@ -42,6 +50,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                     .then(CommandManager.literal("whistle")
                         .executes(context -> callAllMounts(context))
                         .then(CommandManager.argument("name", StringArgumentType.greedyString())
+                            .suggests(MOUNT_NAMES)
                             .executes(context -> callMountsByName(context))))
                     .then(CommandManager.literal("find")
                         .executes(context -> findMounts(context)))
@@ -51,14 +60,17 @@ public class BeastCommand implements Command<ServerCommandSource> {
                         .executes(context -> debugMounts(context)))
                     .then(CommandManager.literal("setfree")
                         .then(CommandManager.argument("mountName", StringArgumentType.greedyString())
+                            .suggests(MOUNT_NAMES)
                             .executes(context -> setFreeMount(context))))
                     .then(CommandManager.literal("dismiss")
                         .then(CommandManager.argument("mountName", StringArgumentType.greedyString())
+                            .suggests(MOUNT_NAMES)
                             .executes(context -> dismissMount(context)))))
                 .then(CommandManager.literal("pet")
                     .then(CommandManager.literal("whistle")
                         .executes(context -> callAllPets(context))
                         .then(CommandManager.argument("name", StringArgumentType.greedyString())
+                            .suggests(PET_NAMES)
                             .executes(context -> callPetsByName(context))))
                     .then(CommandManager.literal("sit")
                         .executes(context -> executePetSit(context.getSource())))
@@ -75,16 +87,68 @@ public class BeastCommand implements Command<ServerCommandSource> {
                         .executes(context -> debugPets(context)))
                     .then(CommandManager.literal("setfree")
                         .then(CommandManager.argument("petName", StringArgumentType.greedyString())
+                            .suggests(PET_NAMES)
                             .executes(context -> setFreePet(context))))
                     .then(CommandManager.literal("dismiss")
                         .then(CommandManager.argument("petName", StringArgumentType.greedyString())
+                            .suggests(PET_NAMES)
                             .executes(context -> dismissPet(context))))
                     .then(CommandManager.literal("whistle+follow")
                         .executes(context -> callAndFollowPets(context))))
+                .then(CommandManager.literal("stats")
+                    .requires(source -> source.hasPermissionLevel(2))
+                    .executes(context -> showStats(context.getSource())))
+                .then(CommandManager.literal("reload")
+                    .requires(source -> source.hasPermissionLevel(2))
+                    .executes(context -> reloadConfig(context.getSource())))
             );
         });
     }
 
+    private static CompletableFuture<Suggestions> suggestNames(CommandContext<ServerCommandSource> context, SuggestionsBuilder builder, boolean pets) throws CommandSyntaxException {
+        ServerPlayerEntity player = context.getSource().getPlayer();
+        MinecraftServer server = player.getServer();
+        if (server != null) {
+            for (String name : PackManager.get(server).getNamesByPrefix(player.getUuid(), pets, builder.getRemaining())) {
+                builder.suggest(name);
+            }
+        }
+        return builder.buildFuture();
+    }
+
+    // Swaps in a freshly compiled config without a restart (beastmaster.json is also watched for edits)
+    private static int reloadConfig(ServerCommandSource source) {
+        if (BeastMasterMod.reloadConfig()) {
+            source.sendFeedback(Text.of("§aBeast Master config reloaded."), true);
+            return 1;
+        }
+        source.sendFeedback(Text.of("§cCould not reload beastmaster.json - check the server log. The current settings are kept."), false);
+        return 0;
+    }
+
+    // Timing of each scheduled job over its last full cycle
+    private static int showStats(ServerCommandSource source) {
+        source.sendFeedback(Text.of("§6=== Beast Master Jobs ==="), false);
+        LoadShedder shedder = BeastMasterMod.getLoadShedder();
+        source.sendFeedback(Text.of(String.format("§eLoad mode: §f%s §7(%.1f MSPT)", shedder.getMode(), shedder.getLastMspt())), false);
+        for (BeastScheduler.JobStats stats : BeastMasterMod.getScheduler().getStats()) {
+            source.sendFeedback(Text.of(String.format("§e%s §7(every %d ticks): §f%d items, %d tasks run, %.1f µs/tick avg, %.1f µs max",
+                stats.name(), stats.period(), stats.items(), stats.workItems(), stats.avgMicrosPerTick(), stats.maxMicrosPerTick())), false);
+        }
+
+        BeastWorkQueue queue = BeastMasterMod.getScheduler().getWorkQueue();
+        source.sendFeedback(Text.of(String.format("§eWork queue: §f%d queued, last tick ran %d in %.1f µs and deferred %d §7(%d items deferred so far)",
+            queue.getQueueDepth(), queue.getExecutedLastTick(), queue.getNanosLastTick() / 1000.0,
+            queue.getDeferredLastTick(), queue.getTotalDeferred())), false);
+        source.sendFeedback(Text.of(String.format("§eLoaded pets/mounts: §f%d", BeastMasterMod.getLoadedEntities().size())), false);
+        source.sendFeedback(Text.of(String.format("§eThreats: §f%d mobs targeting players, %d lookups for %d pet aggression checks",
+            BeastMasterMod.getThreatIndex().size(), BeastMasterMod.getThreatQueries(), BeastMasterMod.getAggressionChecks())), false);
+        long hits = DamageContext.getHits();
+        source.sendFeedback(Text.of(String.format("§eDamage on the server thread: §f%d hits, %.2f classifications per hit",
+            hits, hits > 0 ? (double) DamageContext.getClassifications() / hits : 0.0)), false);
+        return 1;
+    }
+
     // Mount command implementations
     private static int callAllMounts(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
         return callMountsByName(context, "");
@@ -133,13 +197,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                 targetPets.addAll(ownedPets);
                 //player.sendMessage(Text.of("§7Attempting to call all " + targetPets.size() + " pets..."), false);
             } else {
-                String searchName = petName.equalsIgnoreCase("Unknown") ? "Noname" : petName;
-                for (PackManager.EntityData pet : ownedPets) {
-                    String currentPetName = pet.customName != null ? pet.customName : "Noname";
-                    if (currentPetName.equalsIgnoreCase(searchName)) {
-                        targetPets.add(pet);
-                    }
-                }
+                targetPets.addAll(PackManager.get(server).getEntitiesByName(playerUUID, true, petName));
 
                 if (targetPets.isEmpty()) {
                     player.sendMessage(Text.of("§cNo pet found with name: " + petName), false);
@@ -149,27 +207,14 @@ public class BeastCommand implements Command<ServerCommandSource> {
                 player.sendMessage(Text.of("§7You have " + targetPets.size() + " callable pet" + (targetPets.size() > 1 ? "s" : "") + " named '" + petName + "', attempting to call..."), false);
             }
 
-            List<Entity> summonablePets = new ArrayList<>();
+            // One batch: each pet is checked, removed from wherever it's loaded and re-created once
+            BeastMasterMod.SummonResult result = BeastMasterMod.summonEntities(server, targetPets, player);
+            List<Entity> summonablePets = result.summoned();
             List<String> failedPets = new ArrayList<>();
-            List<UUID> deadPets = new ArrayList<>();
-
-            for (PackManager.EntityData petData : targetPets) {
-                try {
-                    // PET VERSION: ALWAYS use the NBT loading approach to ensure proper dimension handling
-                    // This guarantees the entity is removed from its original dimension
-                    Entity loadedPet = BeastMasterMod.loadAndTeleportEntity(server, petData, player);
-                    if (loadedPet != null) {
-                        summonablePets.add(loadedPet);
-                    } else {
-                        String currentPetName = petData.customName != null ? petData.customName : "Noname";
-                        failedPets.add(currentPetName);
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("Error processing pet {}", petData.entityUuid, e);
-                    String currentPetName = petData.customName != null ? petData.customName : "Noname";
-                    failedPets.add(currentPetName);
-                }
+            for (PackManager.EntityData failedData : result.failed()) {
+                failedPets.add(failedData.customName != null ? failedData.customName : "Noname");
             }
+            List<UUID> deadPets = result.dead();
 
             // Remove dead pets from tracking
             removeDeadEntities(server, deadPets, player);
@@ -252,13 +297,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                 targetMounts.addAll(ownedMounts);
                 player.sendMessage(Text.of("§7Attempting to call all " + targetMounts.size() + " mounts..."), false);
             } else {
-                String searchName = mountName.equalsIgnoreCase("Unknown") ? "Noname" : mountName;
-                for (PackManager.EntityData mount : ownedMounts) {
-                    String currentMountName = mount.customName != null ? mount.customName : "Noname";
-                    if (currentMountName.equalsIgnoreCase(searchName)) {
-                        targetMounts.add(mount);
-                    }
-                }
+                targetMounts.addAll(PackManager.get(server).getEntitiesByName(playerUUID, false, mountName));
 
                 if (targetMounts.isEmpty()) {
                     player.sendMessage(Text.of("§cNo mount found with name: " + mountName), false);
@@ -268,27 +307,14 @@ public class BeastCommand implements Command<ServerCommandSource> {
                 player.sendMessage(Text.of("§7You have " + targetMounts.size() + " callable mount" + (targetMounts.size() > 1 ? "s" : "") + " named '" + mountName + "', attempting to call..."), false);
             }
 
-            List<Entity> summonableMounts = new ArrayList<>();
+            // One batch: each mount is checked, removed from wherever it's loaded and re-created once
+            BeastMasterMod.SummonResult result = BeastMasterMod.summonEntities(server, targetMounts, player);
+            List<Entity> summonableMounts = result.summoned();
             List<String> failedMounts = new ArrayList<>();
-            List<UUID> deadMounts = new ArrayList<>();
-
-            for (PackManager.EntityData mountData : targetMounts) {
-                try {
-                    // ALWAYS use the NBT loading approach to ensure proper dimension handling
-                    // This guarantees the entity is removed from its original dimension
-                    Entity loadedMount = BeastMasterMod.loadAndTeleportEntity(server, mountData, player);
-                    if (loadedMount != null) {
-                        summonableMounts.add(loadedMount);
-                    } else {
-                        String currentMountName = mountData.customName != null ? mountData.customName : "Noname";
-                        failedMounts.add(currentMountName);
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("Error processing mount {}", mountData.entityUuid, e);
-                    String currentMountName = mountData.customName != null ? mountData.customName : "Noname";
-                    failedMounts.add(currentMountName);
-                }
+            for (PackManager.EntityData failedData : result.failed()) {
+                failedMounts.add(failedData.customName != null ? failedData.customName : "Noname");
             }
+            List<UUID> deadMounts = result.dead();
 
             // Remove dead mounts from tracking
             removeDeadEntities(server, deadMounts, player);
@@ -397,7 +423,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
 
             // Search only in the player's current world and around them
             ServerWorld playerWorld = (ServerWorld) player.getWorld();
-            PackManager manager = PackManager.get(playerWorld);
+            PackManager manager = PackManager.get(server);
             
             // Search in a reasonable radius around the player (64 blocks)
             List<Entity> entitiesInWorld = playerWorld.getEntitiesByClass(
@@ -417,7 +443,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
             LOGGER.debug("Found {} matching entities near player", entitiesInWorld.size());
 
             for (Entity entity : entitiesInWorld) {
-                manager.storeEntityNbt(entity);
+                manager.storeEntityNbt(entity, true);
                 registered++;
                 LOGGER.debug("Registered: {} ({})", entity.getUuid(), entity.getType().getTranslationKey());
             }
@@ -434,21 +460,14 @@ public class BeastCommand implements Command<ServerCommandSource> {
                 BeastMasterMod.getAllRegisteredPets(player.getServer(), player.getUuid()) :
                 BeastMasterMod.getAllRegisteredMounts(player.getServer(), player.getUuid());
 
-            // DEDUPLICATE: Only show the most recent entry for each UUID
-            Map<UUID, PackManager.EntityData> mostRecentEntities = new HashMap<>();
+            // FILTER OUT DEAD ENTITIES (the registry already holds one entry per UUID)
+            List<PackManager.EntityData> deduplicatedEntities = new ArrayList<>();
             for (PackManager.EntityData entityData : ownedEntities) {
-                // FILTER OUT DEAD ENTITIES
-                if (BeastMasterMod.isEntityDeadGlobally(entityData.entityUuid)) {
-                    continue;
-                }
-                PackManager.EntityData existing = mostRecentEntities.get(entityData.entityUuid);
-                if (existing == null || entityData.timestamp > existing.timestamp) {
-                    mostRecentEntities.put(entityData.entityUuid, entityData);
+                if (!BeastMasterMod.isEntityDeadGlobally(entityData.entityUuid)) {
+                    deduplicatedEntities.add(entityData);
                 }
             }
 
-            List<PackManager.EntityData> deduplicatedEntities = new ArrayList<>(mostRecentEntities.values());
-
             player.sendMessage(Text.of("§7You have " + deduplicatedEntities.size() + " callable " + typeName + "."), false);
 
             if (deduplicatedEntities.isEmpty()) {
@@ -529,6 +548,11 @@ public class BeastCommand implements Command<ServerCommandSource> {
             player.sendMessage(Text.of("§a- Alive: " + aliveCount), false);
             player.sendMessage(Text.of("§c- Dead: " + deadCount + " (will be cleaned up)"), false);
 
+            // Stored snapshot size for everything this player owns (pets and mounts)
+            EntitySnapshot.Footprint footprint = PackManager.get(server).getFootprint(playerUUID);
+            player.sendMessage(Text.of(String.format("§6Stored data: %.1f KB (%.1f KB in shared chunks)",
+                footprint.totalBytes() / 1024.0, footprint.sharedBytes / 1024.0)), false);
+
             return 1;
         } catch (Exception e) {
             LOGGER.error("Error in debug command", e);
@@ -561,13 +585,9 @@ public class BeastCommand implements Command<ServerCommandSource> {
 
     private static void removeDeadEntities(MinecraftServer server, List<UUID> deadEntities, ServerPlayerEntity player) {
         if (!deadEntities.isEmpty()) {
+            PackManager manager = PackManager.get(server);
             for (UUID deadEntityId : deadEntities) {
-                for (ServerWorld world : server.getWorlds()) {
-                    PackManager manager = PackManager.get(world);
-                    if (manager.isEntityTracked(deadEntityId)) {
-                        manager.untrackEntity(deadEntityId);
-                    }
-                }
+                manager.untrackEntity(deadEntityId);
             }
             player.sendMessage(Text.of("§6Removed " + deadEntities.size() + " dead entit" + (deadEntities.size() > 1 ? "ies" : "y") + " from callable list."), false);
         }
@@ -648,7 +668,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
 
             if (success) {
                 // Remove from tracking
-                PackManager manager = PackManager.get((ServerWorld) player.getWorld());
+                PackManager manager = PackManager.get(player.getServer());
                 manager.untrackEntity(targetEntity.getUuid());
                 return 1;
             } else {
@@ -702,7 +722,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
             player.sendMessage(Text.of("§aYou dismissed " + entityNameStr + " from the world."), false);
 
             // Remove from tracking
-            PackManager manager = PackManager.get((ServerWorld) player.getWorld());
+            PackManager manager = PackManager.get(player.getServer());
             manager.untrackEntity(targetEntity.getUuid());
 
             return 1;
@@ -966,6 +986,32 @@ public class BeastCommand implements Command<ServerCommandSource> {
 
     // This is only used on setfree and dismiss (so you never release a pet you aren't looking at)
     private static Entity findTargetEntityByName(ServerPlayerEntity player, boolean findPet, String entityName) {
+        // Resolve the name through the registry first and only look up those few entities
+        MinecraftServer server = player.getServer();
+        if (server != null) {
+            Entity closestEntity = null;
+            double closestDistance = 50.0 * 50.0;
+
+            for (PackManager.EntityData data : PackManager.get(server).getEntitiesByName(player.getUuid(), findPet, entityName)) {
+                if (!data.isAlive) continue;
+
+                Entity entity = player.getWorld().getEntity(data.entityUuid);
+                if (entity == null || !entity.isAlive() || !BeastMasterMod.isOwnedByPlayer(entity, player.getUuid())) continue;
+                if (!nameMatches(entity, entityName)) continue; // Renamed since it was last stored
+
+                double distance = entity.squaredDistanceTo(player);
+                if (distance <= closestDistance) {
+                    closestDistance = distance;
+                    closestEntity = entity;
+                }
+            }
+
+            if (closestEntity != null) {
+                return closestEntity;
+            }
+        }
+
+        // Fall back to scanning for owned entities the registry hasn't seen yet
         List<Entity> entities = player.getWorld().getOtherEntities(player,
             player.getBoundingBox().expand(50.0), // Large radius to find named entities
             entity -> {
@@ -974,16 +1020,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                     BeastConfig.isSupportedMount(entity);
                 boolean isOwned = BeastMasterMod.isOwnedByPlayer(entity, player.getUuid());
 
-                // FIX: Special handling for "Noname" to match unnamed entities
-                boolean nameMatches;
-                if (entityName.equalsIgnoreCase("Noname")) {
-                    nameMatches = !entity.hasCustomName(); // Match entities with no custom name
-                } else {
-                    nameMatches = entity.hasCustomName() &&
-                        entity.getCustomName().getString().equalsIgnoreCase(entityName);
-                }
-
-                return correctType && isOwned && entity.isAlive() && nameMatches;
+                return correctType && isOwned && entity.isAlive() && nameMatches(entity, entityName);
             });
 
         if (entities.isEmpty()) {
@@ -1005,6 +1042,15 @@ public class BeastCommand implements Command<ServerCommandSource> {
         return closestEntity;
     }
 
+    private static boolean nameMatches(Entity entity, String entityName) {
+        // FIX: Special handling for "Noname" to match unnamed entities
+        if (entityName.equalsIgnoreCase("Noname")) {
+            return !entity.hasCustomName(); // Match entities with no custom name
+        }
+        return entity.hasCustomName() &&
+            entity.getCustomName().getString().equalsIgnoreCase(entityName);
+    }
+
     private static String getEntityName(Entity entity) {
         if (entity.hasCustomName() && entity.getCustomName() != null) {
             return entity.getCustomName().getString();
@@ -1030,8 +1076,9 @@ public class BeastCommand implements Command<ServerCommandSource> {
         List<String> failedPets = new ArrayList<>();
         Set<UUID> processedPets = new HashSet<>(); // NEW: Track processed pets to avoid duplicates
 
-        // Use cached registry from PackManager
-        List<PackManager.EntityData> playerPets = BeastMasterMod.getAllRegisteredPets(server, playerUUID);
+        // Only pets that are loaded right now can sit or follow
+        List<PackManager.EntityData> playerPets = BeastMasterMod.getLoadedEntries(server, playerUUID);
+        playerPets.removeIf(data -> !data.isPet);
 
         for (PackManager.EntityData petData : playerPets) {
             // NEW: Skip if we've already processed this pet (avoid duplicates)
@@ -1040,7 +1087,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
             }
 
             try {
-                Entity entity = BeastMasterMod.findEntityInAnyWorld(server, petData.entityUuid);
+                Entity entity = BeastMasterMod.findLoadedEntity(server, petData);
 
                 if (entity instanceof Tameable tameable && entity.isAlive()) {
                     // NEW: Mark this pet as processed
@@ -1066,10 +1113,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                     }
 
                     // Update the entity in PackManager
-                    if (entity.getWorld() instanceof ServerWorld serverWorld) {
-                        PackManager manager = PackManager.get(serverWorld);
-                        manager.storeEntityNbt(entity);
-                    }
+                    PackManager.get(server).storeEntityNbt(entity, true);
 
                 } else {
                     // Entity not found or not alive
@@ -1114,8 +1158,9 @@ public class BeastCommand implements Command<ServerCommandSource> {
         List<String> failedPets = new ArrayList<>();
         Set<UUID> processedPets = new HashSet<>(); // NEW: Track processed pets to avoid duplicates
 
-        // Use cached registry from PackManager
-        List<PackManager.EntityData> playerPets = BeastMasterMod.getAllRegisteredPets(server, playerUUID);
+        // Only pets that are loaded right now can sit or follow
+        List<PackManager.EntityData> playerPets = BeastMasterMod.getLoadedEntries(server, playerUUID);
+        playerPets.removeIf(data -> !data.isPet);
 
         // If we have a count limit, we need to sort pets by distance
         if (maxCount > 0) {
@@ -1129,7 +1174,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                 }
 
                 try {
-                    Entity entity = BeastMasterMod.findEntityInAnyWorld(server, petData.entityUuid);
+                    Entity entity = BeastMasterMod.findLoadedEntity(server, petData);
                     if (entity instanceof Tameable && entity.isAlive()) {
                         double distance = entity.squaredDistanceTo(player);
                         petsWithDistance.add(new PetWithDistance(petData, entity, distance));
@@ -1176,10 +1221,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                         }
 
                         // Update the entity in PackManager
-                        if (entity.getWorld() instanceof ServerWorld serverWorld) {
-                            PackManager manager = PackManager.get(serverWorld);
-                            manager.storeEntityNbt(entity);
-                        }
+                        PackManager.get(server).storeEntityNbt(entity, true);
 
                     }
                 } catch (Exception e) {
@@ -1198,7 +1240,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                 }
 
                 try {
-                    Entity entity = BeastMasterMod.findEntityInAnyWorld(server, petData.entityUuid);
+                    Entity entity = BeastMasterMod.findLoadedEntity(server, petData);
 
                     if (entity instanceof Tameable tameable && entity.isAlive()) {
                         // NEW: Mark as processed
@@ -1229,10 +1271,7 @@ public class BeastCommand implements Command<ServerCommandSource> {
                         }
 
                         // Update the entity in PackManager
-                        if (entity.getWorld() instanceof ServerWorld serverWorld) {
-                            PackManager manager = PackManager.get(serverWorld);
-                            manager.storeEntityNbt(entity);
-                        }
+                        PackManager.get(server).storeEntityNbt(entity, true);
 
                     } else {
                         // Entity not found or not alive
@@ -3,8 +3,8 @@ package com.whipowill.beastmaster;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.EntityType;
-import net.minecraft.entity.passive.*;
+import net.minecraft.entity.passive.HorseBaseEntity;
+import net.minecraft.entity.passive.PigEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +14,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 public class BeastConfig {
@@ -41,87 +43,137 @@ public class BeastConfig {
     public boolean petsAttackHostileMobs = true;
     public int petAggressionRange = 12; // How far pets can detect hostile mobs
     public boolean enableWhistleSounds = true; // New config for whistle sounds
+    public int deadEntityRetentionDays = 0; // Forget dead entities after this many days (0 = never)
+    public int maxDeadEntities = 0; // Keep only the most recent deaths (0 = no limit)
+    public int tickBudgetMicros = 2000; // Max time per tick for background pet/mount work (the rest waits a tick)
+    public int aggressionIntervalTicks = 40; // How often pets near a player look for hostile mobs
+    public int aggressionRadius = 64; // Only pets within this many blocks of their owner are checked
+    public int regenIntervalTicks = 200; // How often pet/mount regeneration runs
+    public int regenRadius = 64;
+    public int fastMountSaveIntervalTicks = 200; // How often mounts right next to their owner are saved
+    public int fastMountSaveRadius = 16;
+    public int slowMountSaveIntervalTicks = 1200; // How often mounts further out are saved (if they moved)
+    public int slowMountSaveRadius = 32;
+    public boolean loadSheddingEnabled = true; // Scale back background work while the server is lagging
+    public float busyMspt = 40; // Aggression checks run half as often, within half the radius
+    public float strainedMspt = 45; // Regeneration also runs half as often
+    public float criticalMspt = 50; // Slow mount saves are paused
+    public float loadSheddingRecoveryMspt = 5; // MSPT must drop this far below a threshold before easing off
+    public Map<String, EntityOverride> entityOverrides = new LinkedHashMap<>(); // Per entity type, e.g. "minecraft:pig"
+
+    // Settings for one entity type - anything left out falls back to the pet or mount setting above
+    public static class EntityOverride {
+        public Boolean regen;
+        public Boolean immortal;
+        public Integer healthRequiredToFight;
+        public Integer healthRequiredToMove;
+        public Boolean aggressive; // Instead of being listed in aggressivePets
+    }
 
     private transient Set<String> petEntitySet = new HashSet<>();
     private transient Set<String> mountEntitySet = new HashSet<>();
 
-    public static boolean isSupportedPet(Entity entity) {
-        if (BeastMasterMod.CONFIG == null) return false;
-
-        // Get entity registry name
-        String entityId = EntityType.getId(entity.getType()).toString();
+    // The file's contents as last read or written here - lets the watcher skip our own saves
+    private static volatile String lastJson;
 
-        // Check if it's in our supported pets list
-        return BeastMasterMod.CONFIG.petEntitySet.contains(entityId) ||
-               // Keep vanilla compatibility
-               (entity instanceof WolfEntity) ||
-               (entity instanceof CatEntity) ||
-               (entity instanceof ParrotEntity);
+    // Cached on the entity - see BeastMasterMod.beastInfo
+    public static boolean isSupportedPet(Entity entity) {
+        return (BeastMasterMod.getRole(entity) & BeastEntity.ROLE_PET) != 0;
     }
 
     public static boolean isSupportedMount(Entity entity) {
-        if (BeastMasterMod.CONFIG == null) return false;
+        return (BeastMasterMod.getRole(entity) & BeastEntity.ROLE_MOUNT) != 0;
+    }
+
+    static boolean classifyPet(Entity entity) {
+        BeastPolicy policy = BeastMasterMod.POLICY;
+        if (policy == null) return false;
+
+        return (policy.rolesOf(entity) & BeastPolicy.ROLE_PET) != 0;
+    }
 
-        String entityId = EntityType.getId(entity.getType()).toString();
+    static boolean classifyMount(Entity entity) {
+        BeastPolicy policy = BeastMasterMod.POLICY;
+        if (policy == null) return false;
 
-        return BeastMasterMod.CONFIG.mountEntitySet.contains(entityId) ||
+        byte roles = policy.rolesOf(entity);
+        return (roles & BeastPolicy.ROLE_MOUNT) != 0 ||
                // Keep vanilla compatibility with tamed checks
-               (entity instanceof HorseEntity && ((HorseEntity) entity).isTame()) ||
-               (entity instanceof DonkeyEntity && ((DonkeyEntity) entity).isTame()) ||
-               (entity instanceof MuleEntity && ((MuleEntity) entity).isTame()) ||
-               (entity instanceof LlamaEntity && ((LlamaEntity) entity).isTame()) ||
-               (entity instanceof PigEntity && ((PigEntity) entity).isSaddled());
+               ((roles & BeastPolicy.ROLE_TAMEABLE_MOUNT) != 0 && ((HorseBaseEntity) entity).isTame()) ||
+               ((roles & BeastPolicy.ROLE_SADDLE_MOUNT) != 0 && ((PigEntity) entity).isSaddled());
     }
 
     // NEW: Helper method to check if a pet should be aggressive
     public static boolean shouldPetBeAggressive(Entity entity) {
-        if (BeastMasterMod.CONFIG == null || !BeastMasterMod.CONFIG.petsAttackHostileMobs) {
+        BeastPolicy policy = BeastMasterMod.POLICY;
+        if (policy == null || !policy.petsAttackHostileMobs) {
             return false;
         }
 
-        String entityId = EntityType.getId(entity.getType()).toString();
-
         // Check if this entity is in the aggressive pets list
-        for (String aggressivePet : BeastMasterMod.CONFIG.aggressivePets) {
-            if (aggressivePet.equals(entityId)) {
-                return true;
-            }
-        }
-
-        return false;
+        return (policy.rolesOf(entity) & BeastPolicy.ROLE_AGGRESSIVE) != 0;
     }
 
     public static BeastConfig load() {
+        try {
+            BeastConfig config = read();
+            LOGGER.info("Loaded Leader of the Pack configuration");
+            return config;
+        } catch (Exception e) {
+            LOGGER.error("Failed to load config, using defaults", e);
+            return new BeastConfig();
+        }
+    }
+
+    // Throws instead of falling back to defaults, so a reload with a broken file keeps the current settings
+    public static BeastConfig read() throws IOException {
         BeastConfig config = new BeastConfig();
+        String json = null;
 
-        try {
-            if (Files.exists(CONFIG_PATH)) {
-                String json = Files.readString(CONFIG_PATH);
-                config = GSON.fromJson(json, BeastConfig.class);
-            } else {
-                // Create directory if it doesn't exist
-                Files.createDirectories(CONFIG_PATH.getParent());
+        if (Files.exists(CONFIG_PATH)) {
+            json = Files.readString(CONFIG_PATH);
+            config = GSON.fromJson(json, BeastConfig.class);
+            if (config == null) {
+                throw new IOException("Config file is empty: " + CONFIG_PATH);
             }
+        } else {
+            // Create directory if it doesn't exist
+            Files.createDirectories(CONFIG_PATH.getParent());
+        }
 
-            // Initialize sets
-            config.petEntitySet = new HashSet<>(Arrays.asList(config.supportedPetEntities));
-            config.mountEntitySet = new HashSet<>(Arrays.asList(config.supportedMountEntities));
+        // Initialize sets
+        config.petEntitySet = new HashSet<>(Arrays.asList(config.supportedPetEntities));
+        config.mountEntitySet = new HashSet<>(Arrays.asList(config.supportedMountEntities));
 
-            // Save config to ensure any new fields are persisted
+        // Save config to ensure any new fields are persisted (only if that changes anything,
+        // otherwise every reload would trigger the watcher again)
+        if (!GSON.toJson(config).equals(json)) {
             config.save();
-
-            LOGGER.info("Loaded Leader of the Pack configuration");
-        } catch (Exception e) {
-            LOGGER.error("Failed to load config, using defaults", e);
+        } else {
+            lastJson = json;
         }
 
         return config;
     }
 
+    // False when the file still holds what we last read or wrote (e.g. the event was our own save)
+    static boolean hasChangedOnDisk() {
+        try {
+            return Files.exists(CONFIG_PATH) && !Files.readString(CONFIG_PATH).equals(lastJson);
+        } catch (IOException e) {
+            return false; // Probably mid-write - the next event will catch it
+        }
+    }
+
+    static Path getPath() {
+        return CONFIG_PATH;
+    }
+
     public void save() {
         try {
             String json = GSON.toJson(this);
             Files.writeString(CONFIG_PATH, json);
+            lastJson = json;
         } catch (IOException e) {
             LOGGER.error("Failed to save config", e);
         }
@@ -133,6 +185,7 @@ public class BeastConfig {
             // Update the array for saving
             BeastMasterMod.CONFIG.supportedPetEntities = BeastMasterMod.CONFIG.petEntitySet.toArray(new String[0]);
             BeastMasterMod.CONFIG.save();
+            BeastMasterMod.applyConfig(BeastMasterMod.CONFIG); // Reclassify every type
         }
     }
 
@@ -141,6 +194,7 @@ public class BeastConfig {
             BeastMasterMod.CONFIG.mountEntitySet.add(entityId);
             BeastMasterMod.CONFIG.supportedMountEntities = BeastMasterMod.CONFIG.mountEntitySet.toArray(new String[0]);
             BeastMasterMod.CONFIG.save();
+            BeastMasterMod.applyConfig(BeastMasterMod.CONFIG); // Reclassify every type
         }
     }
 }
@@ -0,0 +1,24 @@
+package com.whipowill.beastmaster;
+
+import java.util.UUID;
+
+// Per-entity cache of what we think of an entity, mixed into every Entity (see EntityRoleCacheMixin).
+// Filled on first use and thrown away when the owner, tame state, saddle, riders or config change.
+public interface BeastEntity {
+    byte ROLE_PET = 1;
+    byte ROLE_MOUNT = 2;
+
+    // Config generation the cache was filled for, or -1 if it needs filling
+    int beastmaster$getCacheGeneration();
+
+    byte beastmaster$getRole();
+
+    UUID beastmaster$getOwner();
+
+    // False for untamed horse-likes that still carry an owner UUID
+    boolean beastmaster$isOwnerConfirmed();
+
+    void beastmaster$setCache(int generation, byte role, UUID owner, boolean ownerConfirmed);
+
+    void beastmaster$invalidateCache();
+}
@@ -2,23 +2,26 @@ package com.whipowill.beastmaster;
 
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.player.UseEntityCallback;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.Tameable;
+import net.minecraft.entity.ai.brain.Brain;
+import net.minecraft.entity.ai.brain.MemoryModuleType;
 import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.entity.passive.WolfEntity;
 import net.minecraft.entity.passive.CatEntity;
 import net.minecraft.entity.passive.ParrotEntity;
+import net.minecraft.entity.passive.HorseBaseEntity;
 import net.minecraft.entity.passive.HorseEntity;
 import net.minecraft.entity.passive.DonkeyEntity;
 import net.minecraft.entity.passive.MuleEntity;
 import net.minecraft.entity.passive.LlamaEntity;
 import net.minecraft.entity.passive.PigEntity;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
@@ -33,15 +36,11 @@ import net.minecraft.world.World;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import java.util.ArrayList;
 
@@ -50,12 +49,18 @@ public class BeastMasterMod implements ModInitializer {
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
     public static BeastConfig CONFIG;
 
+    // Compiled from CONFIG - hot paths read this. Replaced as a whole on reload, never modified
+    public static volatile BeastPolicy POLICY;
+
     // Cooldown tracking
     private static final Map<UUID, Long> playerWhistleCooldowns = new HashMap<>();
     private final Map<UUID, Long> mountBuckCooldowns = new HashMap<>();
     
     // Dead pet registry - persists forever to prevent resurrection
-    private static final Set<UUID> globalDeadEntityRegistry = new HashSet<>();
+    private static final DeadEntitySet globalDeadEntityRegistry = new DeadEntitySet();
+    private static final DeadEntityJournal deadEntityJournal = new DeadEntityJournal(
+        Paths.get("config", "beastmaster_dead_entities.journal"),
+        Paths.get("config", "beastmaster_dead_entities.txt"));
     
     // Whistle sounds
     public static final Identifier WHISTLE_1_ID = new Identifier(MOD_ID, "whistle1");
@@ -69,12 +74,34 @@ public class BeastMasterMod implements ModInitializer {
     // Interaction debouncing
     private static final Map<UUID, Long> lastInteractionSave = new HashMap<>();
 
+    // Periodic pet/mount jobs, spread evenly over their intervals
+    private static final BeastScheduler scheduler = new BeastScheduler();
+    private static final LoadShedder loadShedder = new LoadShedder();
+
+    // Owned or registered pets/mounts currently loaded in any world - the periodic passes only look at these
+    private static final LoadedEntityCache loadedEntities = new LoadedEntityCache();
+
+    // Mob -> targeted player, fed by MobTargetMixin and the brain target scan
+    private static final ThreatIndex<MobEntity> threatIndex = new ThreatIndex<>();
+
+    // Dead copies found while loading - removed at the start of the next tick, not in the middle of loading them
+    private static final List<Entity> pendingDiscards = new ArrayList<>();
+
+    // Reloads the config when beastmaster.json is edited (while a server is running)
+    private static ConfigWatcher configWatcher;
+
+    // Which actions the current sweep cycle includes (decided when the cycle starts)
+    private boolean sweepRegenDue;
+    private boolean sweepSaveDue;
+    private int lastRegenSweep = Integer.MIN_VALUE / 2;
+    private int lastSaveSweep = Integer.MIN_VALUE / 2;
+
     @Override
     public void onInitialize() {
         LOGGER.info("Leader of the Pack mod initialized!");
 
         // Load configuration
-        CONFIG = BeastConfig.load();
+        applyConfig(BeastConfig.load());
         
         // Load dead entity registry
         loadDeadEntityRegistry();
@@ -93,269 +120,87 @@ public class BeastMasterMod implements ModInitializer {
 
         // Register entity tracking on load
         ServerEntityEvents.ENTITY_LOAD.register((entity, world) -> {
-            if (isSupportedEntity(entity) && isOwned(entity) && getOwnerUuid(entity) != null) {
-                // Just track it - we'll handle removal during dimension changes
-                PackManager manager = PackManager.get((ServerWorld) world);
+            // A copy of something that already died (old chunk data, duplication) - removed at the start of the next tick, once loading is done
+            if (isEntityDeadGlobally(entity.getUuid()) && isSupportedEntity(entity)) {
+                LOGGER.info("Deleting globally dead entity that was loaded again: {} in {}", entity.getUuid(), world.getRegistryKey().getValue());
+                pendingDiscards.add(entity);
+                return;
+            }
+
+            UUID ownerUuid = isSupportedEntity(entity) && isOwned(entity) ? getOwnerUuid(entity) : null;
+            if (ownerUuid != null) {
+                loadedEntities.track(entity, ownerUuid);
+                // Just track it - this also records the dimension it was loaded in
+                PackManager manager = PackManager.get(world.getServer());
                 manager.storeEntityNbt(entity);
+            } else {
+                // Registered but not owned right now (e.g. a pig's owner is its rider) - still the registered copy
+                PackManager.get(world.getServer()).getEntityData(entity.getUuid()).ifPresent(data -> {
+                    if (data.isAlive) loadedEntities.track(entity, data.ownerUuid);
+                });
             }
         });
 
-        // OPTIMIZED: Different systems at different frequencies with better performance
-        ServerTickEvents.START_SERVER_TICK.register(server -> {
-            long serverTime = server.getTicks();
-
-            // Clean up cooldowns every 2 minutes (less frequent)
-            if (serverTime % 2400 == 0) {
-                cleanUpCooldowns(server);
+        // Deaths are caught as they happen (see EntityDeathMixin) - this covers anything removed as killed without dying
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, world) -> {
+            if (entity.getRemovalReason() == Entity.RemovalReason.KILLED) {
+                onEntityKilled(entity);
             }
-
-            // Aggression processing: Every 2 seconds (40 ticks) - using cached registry
-            if (serverTime % 40 == 0) {
-                for (ServerWorld world : server.getWorlds()) {
-                    List<ServerPlayerEntity> players = world.getPlayers();
-                    if (players.isEmpty()) continue;
-                    
-                    PackManager manager = PackManager.get(world);
-                    double searchRadiusSq = 64.0 * 64.0;
-                    
-                    for (ServerPlayerEntity player : players) {
-                        // Get ONLY this player's pets from the cached registry
-                        List<PackManager.EntityData> playerPets = manager.getPetsByOwner(player.getUuid());
-                        if (playerPets.isEmpty()) continue;
-                        
-                        for (PackManager.EntityData petData : playerPets) {
-                            if (!petData.isAlive) continue;
-                            
-                            // Find the actual entity (much cheaper than world scan)
-                            Entity pet = world.getEntity(petData.entityUuid);
-                            if (pet == null || !pet.isAlive() || !(pet instanceof LivingEntity living)) continue;
-                            
-                            // Check distance using quick squared distance check
-                            if (pet.squaredDistanceTo(player) > searchRadiusSq) continue;
-                            
-                            // Apply aggressive behavior for pets
-                            if (CONFIG != null && CONFIG.petsAttackHostileMobs) {
-                                try {
-                                    applyAggressiveBehavior(living);
-                                } catch (Exception e) {
-                                    LOGGER.error("Error applying aggressive behavior to {}", pet.getUuid(), e);
-                                }
-                            }
-                        }
-                    }
-                }
+            loadedEntities.untrack(entity);
+            if (entity instanceof MobEntity mob) {
+                threatIndex.remove(mob);
             }
+        });
 
-            // Regeneration processing: Every 10 seconds (200 ticks) - using cached registry
-            if (serverTime % 200 == 0) {
-                for (ServerWorld world : server.getWorlds()) {
-                    List<ServerPlayerEntity> players = world.getPlayers();
-                    if (players.isEmpty()) continue;
-                    
-                    PackManager manager = PackManager.get(world);
-                    double searchRadiusSq = 64.0 * 64.0;
-                    
-                    for (ServerPlayerEntity player : players) {
-                        // Get ALL this player's entities (pets + mounts) from cached registry
-                        List<PackManager.EntityData> playerEntities = manager.getEntitiesByOwner(player.getUuid());
-                        if (playerEntities.isEmpty()) continue;
-                        
-                        for (PackManager.EntityData entityData : playerEntities) {
-                            if (!entityData.isAlive) continue;
-                            
-                            // Find the actual entity
-                            Entity entity = world.getEntity(entityData.entityUuid);
-                            if (entity == null || !entity.isAlive() || !(entity instanceof LivingEntity living)) continue;
-                            
-                            // Check distance
-                            if (entity.squaredDistanceTo(player) > searchRadiusSq) continue;
-                            
-                            boolean isPet = entityData.isPet;
-                            boolean isMount = !entityData.isPet;
-
-                            // Apply regeneration effects
-                            if (CONFIG != null && ((isPet && CONFIG.petRegen) || (isMount && CONFIG.mountRegen))) {
-                                try {
-                                    applyRegenEffects(living);
-                                } catch (Exception e) {
-                                    LOGGER.error("Error applying regeneration effects to {}", entity.getUuid(), e);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        // Other mods may register entity types after our onInitialize - by now every type is
+        // in the registry, so compile the per-type rules again with all of them
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> applyConfig(CONFIG));
 
-            // Fast mount saving: Every 10 seconds (200 ticks) - for inventory/armor changes on nearby mounts
-            if (serverTime % 200 == 0) {
-                for (ServerWorld world : server.getWorlds()) {
-                    List<ServerPlayerEntity> players = world.getPlayers();
-                    if (players.isEmpty()) continue;
-                    
-                    PackManager manager = PackManager.get(world);
-                    double saveRadiusSq = 16.0 * 16.0; // Slightly larger radius for interaction safety
-                    
-                    for (ServerPlayerEntity player : players) {
-                        // Get ONLY this player's mounts from cached registry
-                        List<PackManager.EntityData> playerMounts = manager.getMountsByOwner(player.getUuid());
-                        if (playerMounts.isEmpty()) continue;
-                        
-                        for (PackManager.EntityData mountData : playerMounts) {
-                            if (!mountData.isAlive) continue;
-                            
-                            // Find the actual mount
-                            Entity mount = world.getEntity(mountData.entityUuid);
-                            if (mount == null || !mount.isAlive()) continue;
-                            
-                            // Check if mount is near player (interaction range)
-                            if (mount.squaredDistanceTo(player) > saveRadiusSq) continue;
-                            
-                            try {
-                                // ALWAYS save nearby mounts - inventory/armor changes are important!
-                                manager.storeEntityNbt(mount);
-                                LOGGER.debug("Fast-saved nearby mount: {}", mount.getUuid());
-                            } catch (Exception e) {
-                                LOGGER.error("Error in fast mount save", e);
-                            }
-                        }
-                    }
-                }
-            }
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            configWatcher = new ConfigWatcher(server, BeastConfig.getPath());
+            configWatcher.start();
+        });
 
-            // Slow mount saving: Every 60 seconds (1200 ticks) - for all mounts (backup)
-            if (serverTime % 1200 == 0) {
-                for (ServerWorld world : server.getWorlds()) {
-                    List<ServerPlayerEntity> players = world.getPlayers();
-                    if (players.isEmpty()) continue;
-                    
-                    PackManager manager = PackManager.get(world);
-                    double saveRadiusSq = 32.0 * 32.0; // Larger radius for backup saves
-                    
-                    for (ServerPlayerEntity player : players) {
-                        // Get ONLY this player's mounts from cached registry
-                        List<PackManager.EntityData> playerMounts = manager.getMountsByOwner(player.getUuid());
-                        if (playerMounts.isEmpty()) continue;
-                        
-                        for (PackManager.EntityData mountData : playerMounts) {
-                            if (!mountData.isAlive) continue;
-                            
-                            // Find the actual mount
-                            Entity mount = world.getEntity(mountData.entityUuid);
-                            if (mount == null || !mount.isAlive()) continue;
-                            
-                            // Check if mount is near player
-                            if (mount.squaredDistanceTo(player) > saveRadiusSq) continue;
-                            
-                            try {
-                                // Only save if entity has moved significantly (performance optimization)
-                                Optional<PackManager.EntityData> existingData = manager.getEntityData(mount.getUuid());
-                                if (existingData.isPresent()) {
-                                    PackManager.EntityData oldData = existingData.get();
-                                    // Use squared distance for performance
-                                    double dx = mount.getX() - oldData.x;
-                                    double dy = mount.getY() - oldData.y;
-                                    double dz = mount.getZ() - oldData.z;
-                                    double distanceMovedSq = dx*dx + dy*dy + dz*dz;
-
-                                    if (distanceMovedSq > 4.0) { // 2.0 squared
-                                        manager.storeEntityNbt(mount);
-                                    }
-                                } else {
-                                    manager.storeEntityNbt(mount);
-                                }
-                            } catch (Exception e) {
-                                LOGGER.error("Error in slow mount save", e);
-                            }
-                        }
-                    }
-                }
+        // Make sure every queued death is on disk before the server goes away
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            if (configWatcher != null) {
+                configWatcher.stop();
+                configWatcher = null;
             }
+            deadEntityJournal.flush();
+        });
 
-            // Dead entity cleanup: Every 5 minutes (6000 ticks) - much less frequent
-            if (serverTime % 6000 == 0) {
-                int totalCleaned = 0;
-                int totalDeleted = 0;
-                int totalNbtCleared = 0;
-                
-                for (ServerWorld world : server.getWorlds()) {
-                    PackManager manager = PackManager.get(world);
-                    List<UUID> toRemove = new ArrayList<>();
-
-                    // Check all tracked entities in this world
-                    for (PackManager.EntityData data : manager.getAllEntities()) {
-                        UUID entityUuid = data.entityUuid;
-                        
-                        // Check if entity is in global dead registry
-                        if (isEntityDeadGlobally(entityUuid)) {
-                            // Mark as dead and clear NBT data instead of removing immediately
-                            manager.markEntityAsDead(entityUuid);
-                            totalNbtCleared++;
-                            LOGGER.debug("Cleared NBT data for globally dead entity: {} in {}", entityUuid, world.getRegistryKey().getValue());
-                            continue;
-                        }
-                        
-                        // Check if entity is marked as dead OR if loaded entity is dead
-                        boolean shouldMarkDead = false;
-                        boolean shouldMarkGlobal = false;
-                        
-                        // Check if marked as dead in this world
-                        if (!data.isAlive) {
-                            shouldMarkDead = true;
-                            shouldMarkGlobal = true;
-                            LOGGER.debug("Cleaning up dead pet (marked dead): {} in {}", entityUuid, world.getRegistryKey().getValue());
-                        } else {
-                            // Check if loaded entity is actually dead
-                            Entity entity = world.getEntity(entityUuid);
-                            if (entity != null && !entity.isAlive()) {
-                                shouldMarkDead = true;
-                                shouldMarkGlobal = true;
-                                LOGGER.debug("Cleaning up dead pet (loaded dead): {} in {}", entityUuid, world.getRegistryKey().getValue());
-                            }
-                        }
-                        
-                        if (shouldMarkDead) {
-                            // Mark as dead and clear NBT data
-                            manager.markEntityAsDead(entityUuid);
-                            totalNbtCleared++;
-                            if (shouldMarkGlobal) {
-                                markEntityAsDeadGlobally(entityUuid);
-                            }
-                        }
-                    }
-
-                    // Remove entities that have been dead for a long time (clean up completely)
-                    // Keep them for a while to prevent resurrection, then remove entirely
-                    long now = System.currentTimeMillis();
-                    for (PackManager.EntityData data : manager.getAllEntities()) {
-                        if (!data.isAlive && (now - data.timestamp) > 86400000) { // 24 hours
-                            toRemove.add(data.entityUuid);
-                        }
-                    }
-
-                    // Remove old dead entities from tracking
-                    for (UUID deadEntity : toRemove) {
-                        manager.untrackEntity(deadEntity);
-                        totalCleaned++;
-                    }
-                    
-                    // Aggressive cleanup: Delete any loaded entities that are in the dead registry
-                    for (UUID deadUuid : globalDeadEntityRegistry) {
-                        Entity deadEntity = world.getEntity(deadUuid);
-                        if (deadEntity != null && deadEntity.isAlive()) {
-                            deadEntity.remove(Entity.RemovalReason.DISCARDED);
-                            totalDeleted++;
-                            LOGGER.info("Deleted globally dead entity that was still loaded: {} in {}", deadUuid, world.getRegistryKey().getValue());
-                        }
-                    }
-                }
+        // Drop the cached registry so the next save (or singleplayer world) loads its own
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            PackManager.clearCache();
+            loadedEntities.clear();
+            threatIndex.clear();
+            pendingDiscards.clear();
+        });
 
-                if (totalCleaned > 0 || totalDeleted > 0 || totalNbtCleared > 0) {
-                    LOGGER.info("Cleaned up {} old dead entities, deleted {} loaded dead entities, cleared NBT for {} dead entities", 
-                        totalCleaned, totalDeleted, totalNbtCleared);
-                }
-            }
+        // Dead entries expire from a queue ordered by death time - nothing to do on most ticks
+        ServerTickEvents.START_SERVER_TICK.register(server -> {
+            discardPendingEntities();
+            PackManager.get(server).expireDeadEntries(System.currentTimeMillis());
+            loadShedder.update(server);
+            BeastPolicy policy = POLICY;
+            scheduler.tick(server, policy != null ? policy.tickBudgetNanos : 2000000L);
         });
 
+        // OPTIMIZED: Different systems at different frequencies, each spread over its whole period.
+        // Intervals come from the config and stretch while the server is lagging (see LoadShedder)
+        scheduler.addJob("cooldowns", 2400, server -> scheduler.getWorkQueue().submit(                    // Every 2 minutes
+            BeastWorkQueue.SERVER_WORK, "cooldowns", BeastWorkQueue.SERVER_WORK, () -> cleanUpCooldowns(server)));
+        scheduler.addJob("aggression", loadShedder::aggressionInterval, BeastMasterMod::threatenedPlayers, BeastMasterMod::processAggression); // Every 2 seconds, only while something targets a player
+        scheduler.addJob("brainTargets", 100, BeastMasterMod::defendedPlayers, BeastMasterMod::scanBrainTargets);                      // Every 5 seconds, only for owners with aggressive pets loaded
+        scheduler.addJob("sweep", loadShedder::sweepInterval, this::startSweep, this::processSweep);                                    // Every 10 seconds (regen + fast mount save)
+        scheduler.addJob("slowMountSave", loadShedder::slowMountSaveInterval, BeastMasterMod::onlinePlayers, this::processSlowMountSave); // Every 60 seconds
+        scheduler.addJob("deadRetention", 6000, server -> scheduler.getWorkQueue().submit(
+            BeastWorkQueue.SERVER_WORK, "deadRetention", BeastWorkQueue.SERVER_WORK, () -> {
+                applyDeadEntityRetention();
+                deadEntityJournal.compactIfNeeded(globalDeadEntityRegistry);
+            }));
+
         // Removed automatic pet teleportation when players change dimensions
         // Players can manually summon pets using the whistle commands
 
@@ -371,8 +216,8 @@ public class BeastMasterMod implements ModInitializer {
                             // Only save once per second per entity
                             Long lastSave = lastInteractionSave.get(entityId);
                             if (lastSave == null || now - lastSave > 1000) {
-                                PackManager manager = PackManager.get((ServerWorld) world);
-                                manager.storeEntityNbt(entity);
+                                PackManager manager = PackManager.get(world.getServer());
+                                manager.storeEntityNbt(entity, true);
                                 lastInteractionSave.put(entityId, now);
                                 LOGGER.debug("Updated entity on interaction: {}", entity.getUuid());
                             }
@@ -386,36 +231,284 @@ public class BeastMasterMod implements ModInitializer {
         });
     }
 
+    private static List<ServerPlayerEntity> onlinePlayers(MinecraftServer server) {
+        return new ArrayList<>(server.getPlayerManager().getPlayerList());
+    }
+
+    // The jobs below only queue per-entity work - it runs later under the tick budget
+
+    // Players some mob is targeting right now - with no threats the aggression job has nothing to visit
+    private static List<ServerPlayerEntity> threatenedPlayers(MinecraftServer server) {
+        List<ServerPlayerEntity> players = new ArrayList<>();
+        for (UUID playerUuid : threatIndex.getThreatenedPlayers()) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerUuid);
+            if (player == null) {
+                threatIndex.removePlayer(playerUuid);
+            } else if (!threatsTo(player).isEmpty()) {
+                players.add(player);
+            }
+        }
+        return players;
+    }
+
+    // Mobs in the index still loaded, alive and targeting this player (the same player object -
+    // a respawned player is a new one)
+    private static List<MobEntity> threatsTo(PlayerEntity player) {
+        return threatIndex.getThreats(player.getUuid(),
+            mob -> !mob.isRemoved() && mob.isAlive() && getAttackTarget(mob) == player);
+    }
+
+    // The mob's target - brain-driven mobs (piglins, hoglins) keep theirs in ATTACK_TARGET memory
+    // instead and never call setTarget
+    private static LivingEntity getAttackTarget(MobEntity mob) {
+        LivingEntity target = mob.getTarget();
+        if (target != null) return target;
+
+        Brain<?> brain = mob.getBrain();
+        return brain.hasMemoryModule(MemoryModuleType.ATTACK_TARGET) ? brain.getOptionalMemory(MemoryModuleType.ATTACK_TARGET).orElse(null) : null;
+    }
+
+    // Players with an aggressive pet loaded - the only ones the brain target scan needs to visit
+    private static List<ServerPlayerEntity> defendedPlayers(MinecraftServer server) {
+        List<ServerPlayerEntity> players = new ArrayList<>();
+        BeastPolicy policy = POLICY;
+        if (policy == null || !policy.petsAttackHostileMobs) return players;
+
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            for (Entity pet : loadedEntities.getByOwner(player.getUuid())) {
+                if (BeastConfig.shouldPetBeAggressive(pet)) {
+                    players.add(player);
+                    break;
+                }
+            }
+        }
+        return players;
+    }
+
+    // Brain-driven mobs never go through setTarget - pick up the ones attacking this player here
+    private static void scanBrainTargets(MinecraftServer server, ServerPlayerEntity player) {
+        scheduler.getWorkQueue().submit(player.getUuid(), "brainTargets", player.getUuid(), () -> {
+            BeastPolicy policy = POLICY;
+            if (policy == null || player.isRemoved()) return;
+
+            Box area = player.getBoundingBox().expand(policy.aggressionRange);
+            for (MobEntity mob : player.getWorld().getEntitiesByClass(MobEntity.class, area,
+                    mob -> mob.getTarget() == null && getAttackTarget(mob) == player)) {
+                onMobTargetChanged(mob, player);
+            }
+        });
+    }
+
+    // A mob picked a new target - if it's a player with pets loaded, have the pets defend right away
+    public static void onMobTargetChanged(MobEntity mob, LivingEntity target) {
+        if (mob.getWorld().isClient()) return;
+        if (!threatIndex.update(mob, target instanceof PlayerEntity ? target.getUuid() : null)) return;
+        BeastPolicy policy = POLICY;
+        if (policy == null || !policy.petsAttackHostileMobs) return;
+
+        if (target instanceof ServerPlayerEntity player && loadedEntities.hasAny(player.getUuid())) {
+            // One queued response per player, however many mobs pile on in the same tick (charged to the aggression job)
+            scheduler.getWorkQueue().submit(player.getUuid(), "aggression", player.getUuid(),
+                () -> processAggression(player.getServer(), player));
+        }
+    }
+
+    // Aggression processing for one player's pets - using cached registry
+    private static void processAggression(MinecraftServer server, ServerPlayerEntity player) {
+        BeastPolicy policy = POLICY;
+        if (policy == null || !policy.petsAttackHostileMobs || player.isRemoved()) return;
+
+        // All of this player's pets share one threat query this cycle
+        OwnerThreats threats = new OwnerThreats(player, policy);
+
+        // Get ONLY this player's loaded pets
+        for (PackManager.EntityData petData : getLoadedEntries(server, player.getUuid())) {
+            if (!petData.isPet) continue;
+
+            scheduler.getWorkQueue().submit(player.getUuid(), "aggression", petData.entityUuid, () -> {
+                double radius = loadShedder.aggressionRadius();
+                if (findNearPlayer(player, petData, radius * radius) instanceof LivingEntity living) {
+                    applyAggressiveBehavior(living, threats);
+                }
+            });
+        }
+    }
+
+    // Starts a sweep cycle: works out which actions are due and returns the players to visit
+    private List<ServerPlayerEntity> startSweep(MinecraftServer server) {
+        int now = server.getTicks();
+        sweepRegenDue = now - lastRegenSweep >= loadShedder.regenInterval();
+        sweepSaveDue = now - lastSaveSweep >= loadShedder.fastMountSaveInterval();
+        if (sweepRegenDue) lastRegenSweep = now;
+        if (sweepSaveDue) lastSaveSweep = now;
+        return onlinePlayers(server);
+    }
+
+    // One pass over one player's pets and mounts: each entity is looked up once and gets every
+    // action due this cycle - regeneration, the low-health checks (buck-off) and the fast mount save
+    private void processSweep(MinecraftServer server, ServerPlayerEntity player) {
+        BeastPolicy policy = POLICY;
+        if (policy == null || player.isRemoved()) return;
+
+        boolean regenDue = sweepRegenDue;
+        boolean saveDue = sweepSaveDue;
+        PackManager manager = PackManager.get(server);
+
+        // Get ALL this player's loaded entities (pets + mounts)
+        for (PackManager.EntityData entityData : getLoadedEntries(server, player.getUuid())) {
+            boolean isPet = entityData.isPet;
+            boolean regen = regenDue && (isPet ? policy.petRegenEnabled : policy.mountRegenEnabled);
+            boolean save = saveDue && !isPet; // Inventory/armor changes are important
+            if (!regen && !save) continue;
+
+            scheduler.getWorkQueue().submit(player.getUuid(), "sweep", entityData.entityUuid, () -> {
+                double regenRadius = regen ? loadShedder.regenRadius() : 0;
+                double saveRadius = save ? loadShedder.fastMountSaveRadius() : 0; // Slightly larger than interaction range for safety
+                double radius = Math.max(regenRadius, saveRadius);
+                Entity entity = findNearPlayer(player, entityData, radius * radius);
+                if (entity == null) return;
+
+                double distanceSq = entity.squaredDistanceTo(player);
+                if (regen && distanceSq <= regenRadius * regenRadius && entity instanceof LivingEntity living) {
+                    applyRegenEffects(living);
+                }
+                if (save && distanceSq <= saveRadius * saveRadius) {
+                    // storeEntityNbt skips mounts that haven't changed
+                    manager.storeEntityNbt(entity);
+                    LOGGER.debug("Fast-saved nearby mount: {}", entity.getUuid());
+                }
+            });
+        }
+    }
+
+    // Slow mount saving for all of one player's mounts (backup)
+    private void processSlowMountSave(MinecraftServer server, ServerPlayerEntity player) {
+        if (player.isRemoved() || !loadShedder.slowMountSaveEnabled()) return; // Paused under heavy load
+
+        PackManager manager = PackManager.get(server);
+        for (PackManager.EntityData mountData : getLoadedEntries(server, player.getUuid())) {
+            if (mountData.isPet) continue;
+
+            scheduler.getWorkQueue().submit(player.getUuid(), "slowMountSave", mountData.entityUuid, () -> {
+                // Larger radius for backup saves
+                double radius = loadShedder.slowMountSaveRadius();
+                Entity mount = findNearPlayer(player, mountData, radius * radius);
+                if (mount == null) return;
+
+                // Only save if entity has moved significantly (performance optimization)
+                double dx = mount.getX() - mountData.x;
+                double dy = mount.getY() - mountData.y;
+                double dz = mount.getZ() - mountData.z;
+                double distanceMovedSq = dx*dx + dy*dy + dz*dz;
+
+                if (distanceMovedSq > 4.0) { // 2.0 squared
+                    manager.storeEntityNbt(mount);
+                }
+            });
+        }
+    }
+
+    // The player's loaded, living entity for this entry if it's within range (same dimension only)
+    private static Entity findNearPlayer(ServerPlayerEntity player, PackManager.EntityData data, double radiusSq) {
+        if (player.isRemoved() || !data.isAlive) return null;
+
+        // Find the actual entity - the live cache first, the player's world for anything it missed
+        Entity entity = loadedEntities.get(data.entityUuid);
+        if (entity == null) {
+            entity = player.getWorld().getEntity(data.entityUuid);
+        }
+        if (entity == null || !entity.isAlive() || entity.getWorld() != player.getWorld()) return null;
+
+        // Check distance using quick squared distance check
+        return entity.squaredDistanceTo(player) <= radiusSq ? entity : null;
+    }
+
+    // Registry entries of this player's living pets/mounts that are loaded right now
+    public static List<PackManager.EntityData> getLoadedEntries(MinecraftServer server, UUID ownerUuid) {
+        List<PackManager.EntityData> entries = new ArrayList<>();
+        PackManager manager = PackManager.get(server);
+        for (Entity entity : loadedEntities.getByOwner(ownerUuid)) {
+            manager.getEntityData(entity.getUuid()).ifPresent(data -> {
+                if (data.isAlive) entries.add(data);
+            });
+        }
+        return entries;
+    }
+
+    public static ThreatIndex<MobEntity> getThreatIndex() {
+        return threatIndex;
+    }
+
+    public static LoadedEntityCache getLoadedEntities() {
+        return loadedEntities;
+    }
+
+    public static BeastScheduler getScheduler() {
+        return scheduler;
+    }
+
+    private static void discardPendingEntities() {
+        if (pendingDiscards.isEmpty()) return;
+
+        for (Entity entity : pendingDiscards) {
+            if (!entity.isRemoved()) {
+                entity.remove(Entity.RemovalReason.DISCARDED);
+            }
+        }
+        pendingDiscards.clear();
+    }
+
+    // Compiles and publishes a new policy. POLICY is assigned last, so anything reading it sees
+    // either the old snapshot or the new one - never a mix. Server thread only
+    public static void applyConfig(BeastConfig config) {
+        BeastPolicy policy = BeastPolicy.compile(config);
+        CONFIG = config;
+        POLICY = policy;
+    }
+
+    // Re-reads beastmaster.json (/beast reload, ConfigWatcher). A broken file keeps the current settings
+    public static boolean reloadConfig() {
+        try {
+            applyConfig(BeastConfig.read());
+            LOGGER.info("Reloaded Leader of the Pack configuration");
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Failed to reload config, keeping the current settings", e);
+            return false;
+        }
+    }
+
+    public static LoadShedder getLoadShedder() {
+        return loadShedder;
+    }
+
     private void applyRegenEffects(LivingEntity entity) {
-        if (CONFIG == null || entity == null || !entity.isAlive()) {
+        BeastPolicy policy = POLICY;
+        if (policy == null || entity == null || !entity.isAlive()) {
             return;
         }
         
         try {
-            boolean isPet = BeastConfig.isSupportedPet(entity);
-            boolean isMount = BeastConfig.isSupportedMount(entity);
+            byte role = getRole(entity);
+            BeastPolicy.TypeRules rules = policy.rulesFor(entity); // Per-type settings (entityOverrides)
 
-            if (isPet && CONFIG.petRegen) {
-                if (entity.getHealth() < entity.getMaxHealth()) {
-                    entity.heal(1.0F);
-                }
+            // The low-health checks below are part of regeneration - types that don't regenerate skip all of it
+            if (!rules.regen || role == 0) {
+                return;
             }
 
-            if (isMount && CONFIG.mountRegen) {
-                if (entity.getHealth() < entity.getMaxHealth()) {
-                    entity.heal(1.0F);
-                }
+            if (entity.getHealth() < entity.getMaxHealth()) {
+                entity.heal(1.0F);
             }
 
             // Apply combat behavior for pets
-            if (isPet && CONFIG.petImmortal) {
+            if ((role & BeastEntity.ROLE_PET) != 0 && rules.immortal) {
                 clearAggressionForLowHealth(entity);
             }
 
             // Apply riding behavior for mounts - BUCK PLAYER OFF when injured!
-            if (isMount && CONFIG.mountImmortal) {
-                float healthPercent = (entity.getHealth() / entity.getMaxHealth()) * 100;
-                if (healthPercent <= CONFIG.healthRequiredToMove) {
+            if ((role & BeastEntity.ROLE_MOUNT) != 0 && rules.immortal) {
+                if (!rules.canCarryRider(entity)) {
                     buckPlayerOff(entity);
                 }
             }
@@ -461,17 +554,17 @@ public class BeastMasterMod implements ModInitializer {
 
     // Cooldown management methods
     public static boolean isPlayerOnCooldown(UUID playerUUID) {
-        if (CONFIG.whistleCooldownSeconds <= 0) return false;
+        long cooldownMillis = POLICY.whistleCooldownMillis;
+        if (cooldownMillis <= 0) return false;
 
         Long lastUsed = playerWhistleCooldowns.get(playerUUID);
         if (lastUsed == null) return false;
 
-        long cooldownMillis = CONFIG.whistleCooldownSeconds * 1000L;
         return System.currentTimeMillis() - lastUsed < cooldownMillis;
     }
 
     public static void setPlayerCooldown(UUID playerUUID) {
-        if (CONFIG.whistleCooldownSeconds > 0) {
+        if (POLICY.whistleCooldownMillis > 0) {
             playerWhistleCooldowns.put(playerUUID, System.currentTimeMillis());
             // Limit map size to prevent memory leaks
             if (playerWhistleCooldowns.size() > 1000) {
@@ -481,19 +574,20 @@ public class BeastMasterMod implements ModInitializer {
     }
 
     public static long getCooldownRemaining(UUID playerUUID) {
-        if (CONFIG.whistleCooldownSeconds <= 0) return 0;
+        long cooldownMillis = POLICY.whistleCooldownMillis;
+        if (cooldownMillis <= 0) return 0;
 
         Long lastUsed = playerWhistleCooldowns.get(playerUUID);
         if (lastUsed == null) return 0;
 
         long elapsed = System.currentTimeMillis() - lastUsed;
-        long cooldownMillis = CONFIG.whistleCooldownSeconds * 1000L;
         return Math.max(0, cooldownMillis - elapsed);
     }
 
     // Helper method to play random whistle sound
     public static void playRandomWhistleSound(ServerWorld world, ServerPlayerEntity player) {
-        if (CONFIG == null || !CONFIG.enableWhistleSounds) {
+        BeastPolicy policy = POLICY;
+        if (policy == null || !policy.enableWhistleSounds) {
             return;
         }
         
@@ -517,10 +611,11 @@ public class BeastMasterMod implements ModInitializer {
     }
 
     private void cleanUpCooldowns(MinecraftServer server) {
-        if (CONFIG == null || server == null) return;
+        BeastPolicy policy = POLICY;
+        if (policy == null || server == null) return;
         
         long now = System.currentTimeMillis();
-        long cooldownMillis = CONFIG.whistleCooldownSeconds * 1000L;
+        long cooldownMillis = policy.whistleCooldownMillis;
 
         // Clean up old whistle cooldowns (keep for 1 minute after cooldown expires)
         playerWhistleCooldowns.entrySet().removeIf(entry ->
@@ -537,60 +632,92 @@ public class BeastMasterMod implements ModInitializer {
     }
     
     // Dead entity registry management
-    private void loadDeadEntityRegistry() {
-        try {
-            Path deadRegistryPath = Paths.get("config", "beastmaster_dead_entities.txt");
-            if (Files.exists(deadRegistryPath)) {
-                List<String> lines = Files.readAllLines(deadRegistryPath);
-                for (String line : lines) {
-                    try {
-                        UUID deadUuid = UUID.fromString(line.trim());
-                        globalDeadEntityRegistry.add(deadUuid);
-                    } catch (IllegalArgumentException e) {
-                        LOGGER.warn("Invalid UUID in dead registry: {}", line);
-                    }
-                }
-                LOGGER.info("Loaded {} dead entities from registry", globalDeadEntityRegistry.size());
-            }
-        } catch (Exception e) {
-            LOGGER.error("Error loading dead entity registry", e);
-        }
+    private static void loadDeadEntityRegistry() {
+        deadEntityJournal.load(globalDeadEntityRegistry);
     }
-    
-    private void saveDeadEntityRegistry() {
+
+    // Called the moment an entity dies, so a dead pet can't be summoned again in the meantime
+    public static void onEntityKilled(Entity entity) {
+        MinecraftServer server = entity.getServer();
+        if (server == null || entity.getWorld().isClient()) return;
+
         try {
-            Path deadRegistryPath = Paths.get("config", "beastmaster_dead_entities.txt");
-            Files.createDirectories(deadRegistryPath.getParent());
-            
-            List<String> lines = new ArrayList<>();
-            for (UUID deadUuid : globalDeadEntityRegistry) {
-                lines.add(deadUuid.toString());
+            PackManager manager = PackManager.get(server);
+            Optional<PackManager.EntityData> data = manager.getEntityData(entity.getUuid());
+            if (data.isPresent()) {
+                if (data.get().isAlive) {
+                    LOGGER.debug("Tracked entity died: {} in {}", entity.getUuid(), entity.getWorld().getRegistryKey().getValue());
+                    manager.markEntityAsDead(entity.getUuid()); // Also marks it dead globally
+                }
+            } else if (isSupportedEntity(entity) && isOwned(entity)) {
+                markEntityAsDeadGlobally(entity.getUuid());
             }
-            
-            Files.write(deadRegistryPath, lines);
-            LOGGER.debug("Saved {} dead entities to registry", globalDeadEntityRegistry.size());
         } catch (Exception e) {
-            LOGGER.error("Error saving dead entity registry", e);
+            LOGGER.error("Error recording death of entity {}", entity.getUuid(), e);
         }
     }
-    
+
     public static void markEntityAsDeadGlobally(UUID entityUuid) {
-        if (!globalDeadEntityRegistry.contains(entityUuid)) {
-            globalDeadEntityRegistry.add(entityUuid);
-            // Save immediately to ensure persistence
-            BeastMasterMod instance = new BeastMasterMod(); // Temporary instance for saving
-            instance.saveDeadEntityRegistry();
+        long now = System.currentTimeMillis();
+        if (globalDeadEntityRegistry.add(entityUuid, now)) {
+            // Only queued here - the journal thread appends it to disk
+            deadEntityJournal.append(entityUuid, now);
             LOGGER.info("Marked entity as permanently dead: {}", entityUuid);
         }
     }
     
+    // Age out dead entities per config - the journal drops them on its next compaction
+    private static void applyDeadEntityRetention() {
+        BeastPolicy policy = POLICY;
+        if (policy == null) return;
+
+        int removed = 0;
+        if (policy.deadEntityRetentionMillis > 0) {
+            long cutoff = System.currentTimeMillis() - policy.deadEntityRetentionMillis;
+            removed += globalDeadEntityRegistry.removeDiedBefore(cutoff);
+        }
+        if (policy.maxDeadEntities > 0) {
+            removed += globalDeadEntityRegistry.trimToNewest(policy.maxDeadEntities);
+        }
+
+        if (removed > 0) {
+            LOGGER.info("Forgot {} dead entities past the retention limit", removed);
+        }
+    }
+
     public static boolean isEntityDeadGlobally(UUID entityUuid) {
         return globalDeadEntityRegistry.contains(entityUuid);
     }
 
     // Helper method to check if entity is supported
     public static boolean isSupportedEntity(Entity entity) {
-        return BeastConfig.isSupportedPet(entity) || BeastConfig.isSupportedMount(entity);
+        return getRole(entity) != 0;
+    }
+
+    // Role and owner are worked out once per entity and cached on it until something they
+    // depend on changes (owner, tame state, saddle, riders, config - see the *RoleMixin classes)
+    private static BeastEntity beastInfo(Entity entity) {
+        BeastEntity info = (BeastEntity) entity;
+        BeastPolicy policy = POLICY;
+        int generation = policy != null ? policy.generation : 0;
+        if (info.beastmaster$getCacheGeneration() != generation) {
+            byte role = 0;
+            if (BeastConfig.classifyPet(entity)) role |= BeastEntity.ROLE_PET;
+            if (BeastConfig.classifyMount(entity)) role |= BeastEntity.ROLE_MOUNT;
+            info.beastmaster$setCache(generation, role, computeOwnerUuid(entity), computeOwnerConfirmed(entity));
+        }
+        return info;
+    }
+
+    // True if beastInfo would answer from the cache without working anything out
+    static boolean hasCachedInfo(Entity entity) {
+        BeastPolicy policy = POLICY;
+        return ((BeastEntity) entity).beastmaster$getCacheGeneration() == (policy != null ? policy.generation : 0);
+    }
+
+    // BeastEntity.ROLE_PET / ROLE_MOUNT bits, 0 for anything we don't handle
+    public static byte getRole(Entity entity) {
+        return beastInfo(entity).beastmaster$getRole();
     }
 
     // Helper method to check if entity is owned
@@ -600,32 +727,16 @@ public class BeastMasterMod implements ModInitializer {
 
     // Helper method to check if entity is owned by specific player
     public static boolean isOwnedByPlayer(Entity entity, UUID playerUUID) {
-        if (entity instanceof Tameable) {
-            Tameable tameable = (Tameable) entity;
-            return tameable.getOwnerUuid() != null && tameable.getOwnerUuid().equals(playerUUID);
-        }
-        // Use the same logic as the working mount mod:
-        if (entity instanceof HorseEntity horse) {
-            return horse.isTame() && horse.getOwnerUuid() != null && horse.getOwnerUuid().equals(playerUUID);
-        }
-        if (entity instanceof DonkeyEntity donkey) {
-            return donkey.isTame() && donkey.getOwnerUuid() != null && donkey.getOwnerUuid().equals(playerUUID);
-        }
-        if (entity instanceof MuleEntity mule) {
-            return mule.isTame() && mule.getOwnerUuid() != null && mule.getOwnerUuid().equals(playerUUID);
-        }
-        if (entity instanceof LlamaEntity llama) {
-            return llama.isTame() && llama.getOwnerUuid() != null && llama.getOwnerUuid().equals(playerUUID);
-        }
-        // For pigs with saddles
-        if (entity instanceof PigEntity pig && pig.isSaddled() && pig.getFirstPassenger() instanceof PlayerEntity player) {
-            return player.getUuid().equals(playerUUID);
-        }
-        return false;
+        BeastEntity info = beastInfo(entity);
+        return info.beastmaster$isOwnerConfirmed() && playerUUID.equals(info.beastmaster$getOwner());
     }
 
     // Helper method to get owner UUID
     public static UUID getOwnerUuid(Entity entity) {
+        return beastInfo(entity).beastmaster$getOwner();
+    }
+
+    private static UUID computeOwnerUuid(Entity entity) {
         if (entity instanceof Tameable) {
             Tameable tameable = (Tameable) entity;
             return tameable.getOwnerUuid();
@@ -650,12 +761,22 @@ public class BeastMasterMod implements ModInitializer {
         return null;
     }
 
+    // Use the same logic as the working mount mod: horse-likes only belong to their owner once tamed
+    private static boolean computeOwnerConfirmed(Entity entity) {
+        if (entity instanceof Tameable) return true;
+        if (entity instanceof HorseEntity || entity instanceof DonkeyEntity ||
+            entity instanceof MuleEntity || entity instanceof LlamaEntity) {
+            return ((HorseBaseEntity) entity).isTame();
+        }
+        return true;
+    }
+
     // Utility method to clear aggression when health is below threshold
     public static void clearAggressionForLowHealth(LivingEntity entity) {
-        if (CONFIG == null || entity == null || !entity.isAlive()) return;
+        BeastPolicy policy = POLICY;
+        if (policy == null || entity == null || !entity.isAlive()) return;
         
-        float healthPercent = (entity.getHealth() / entity.getMaxHealth()) * 100;
-        if (healthPercent > CONFIG.healthRequiredToFight) return;
+        if (policy.rulesFor(entity).canFight(entity)) return;
         
         // Clear target if health is too low for ALL mob entities
         if (entity instanceof MobEntity mob) {
@@ -681,9 +802,49 @@ public class BeastMasterMod implements ModInitializer {
     }
 
     // New method for aggressive pet behavior - configurable by pet type
-    private void applyAggressiveBehavior(LivingEntity pet) {
+    // Mobs targeting one owner near them - read from the threat index once per aggression pass,
+    // on the first pet that needs it, and shared by all of the owner's pets
+    private static final class OwnerThreats {
+        private final PlayerEntity owner;
+        private final BeastPolicy policy; // One snapshot for the whole pass, even across a reload
+        private List<LivingEntity> threats;
+
+        OwnerThreats(PlayerEntity owner, BeastPolicy policy) {
+            this.owner = owner;
+            this.policy = policy;
+        }
+
+        List<LivingEntity> get() {
+            if (threats == null) {
+                threatQueries++;
+                threats = new ArrayList<>();
+                Box area = owner.getBoundingBox().expand(policy.aggressionRange);
+                for (MobEntity mob : threatsTo(owner)) {
+                    if (mob.getWorld() == owner.getWorld() && area.intersects(mob.getBoundingBox()) && isThreatToOwner(mob, owner)) {
+                        threats.add(mob);
+                    }
+                }
+            }
+            return threats;
+        }
+    }
+
+    // How many pets looked for a threat vs. how many threat lookups that took (shown in /beast stats)
+    private static long aggressionChecks = 0;
+    private static long threatQueries = 0;
+
+    public static long getAggressionChecks() {
+        return aggressionChecks;
+    }
+
+    public static long getThreatQueries() {
+        return threatQueries;
+    }
+
+    private static void applyAggressiveBehavior(LivingEntity pet, OwnerThreats threats) {
         try {
-            if (CONFIG == null || !CONFIG.petsAttackHostileMobs) return;
+            BeastPolicy policy = threats.policy;
+            if (!policy.petsAttackHostileMobs) return;
 
             // Check if this specific pet type should be aggressive
             if (!BeastConfig.shouldPetBeAggressive(pet)) {
@@ -692,8 +853,7 @@ public class BeastMasterMod implements ModInitializer {
 
             // Only apply if pet is healthy enough to fight
             clearAggressionForLowHealth(pet);
-            float healthPercent = (pet.getHealth() / pet.getMaxHealth()) * 100;
-            if (healthPercent <= CONFIG.healthRequiredToFight) {
+            if (!policy.rulesFor(pet).canFight(pet)) {
                 return;
             }
 
@@ -702,31 +862,23 @@ public class BeastMasterMod implements ModInitializer {
                 return;
             }
 
-            // Get the pet's owner
-            UUID ownerUuid = getOwnerUuid(pet);
-            if (ownerUuid == null) return;
-
-            // Find owner in the same world
-            PlayerEntity owner = pet.getWorld().getPlayerByUuid(ownerUuid);
-            if (owner == null) return;
-
-            // Find mobs that are targeting the owner AND are visible
-            List<LivingEntity> threatsToOwner = pet.getWorld().getEntitiesByClass(
-                LivingEntity.class,
-                owner.getBoundingBox().expand(CONFIG.petAggressionRange),
-                threat -> isThreatToOwner(threat, owner) && canPetSeeTarget(pet, threat)
-            );
+            // Mobs targeting the owner (the owner is in the pet's world - see findNearPlayer)
+            aggressionChecks++;
+            List<LivingEntity> threatsToOwner = threats.get();
 
             // Attack the closest visible threat to owner
             LivingEntity closestThreat = null;
             double closestDistance = Double.MAX_VALUE;
 
             for (LivingEntity threat : threatsToOwner) {
+                // The shared list can be a few ticks old - it may have died or moved on since
+                if (!threat.isAlive() || !isThreatToOwner(threat, threats.owner)) continue;
+
                 double distance = pet.squaredDistanceTo(threat);
-                if (distance < closestDistance) {
-                    closestDistance = distance;
-                    closestThreat = threat;
-                }
+                if (distance >= closestDistance || !canPetSeeTarget(pet, threat, policy)) continue;
+
+                closestDistance = distance;
+                closestThreat = threat;
             }
 
             // Set the pet to attack the threat (only if pet is a MobEntity)
@@ -746,29 +898,20 @@ public class BeastMasterMod implements ModInitializer {
         }
     }
 
-    private boolean isThreatToOwner(LivingEntity entity, PlayerEntity owner) {
-        // Skip if it's a pet or mount
-        if (BeastConfig.isSupportedPet(entity) || BeastConfig.isSupportedMount(entity)) {
-            return false;
-        }
-
-        // Skip players
-        if (entity instanceof PlayerEntity) {
+    private static boolean isThreatToOwner(LivingEntity entity, PlayerEntity owner) {
+        // Only mobs targeting the owner - checked first, it rules out almost everything for free
+        if (!(entity instanceof MobEntity mob) || !owner.equals(getAttackTarget(mob))) {
             return false;
         }
 
-        // Check if this entity is targeting the owner (only for MobEntity)
-        if (entity instanceof MobEntity mob) {
-            return owner.equals(mob.getTarget());
-        }
-
-        return false;
+        // Skip if it's a pet or mount
+        return !BeastConfig.isSupportedPet(entity) && !BeastConfig.isSupportedMount(entity);
     }
 
     // Check if pet can actually see the target (no walls in between)
-    private boolean canPetSeeTarget(LivingEntity pet, LivingEntity target) {
+    private static boolean canPetSeeTarget(LivingEntity pet, LivingEntity target, BeastPolicy policy) {
         // Simple distance check first
-        if (pet.squaredDistanceTo(target) > (CONFIG.petAggressionRange * CONFIG.petAggressionRange)) {
+        if (pet.squaredDistanceTo(target) > policy.aggressionRangeSq) {
             return false;
         }
 
@@ -779,6 +922,10 @@ public class BeastMasterMod implements ModInitializer {
     // Helper method to find entity in any world
     public static Entity findEntityInAnyWorld(MinecraftServer server, UUID entityUuid) {
         if (server == null) return null;
+
+        Entity loaded = loadedEntities.get(entityUuid);
+        if (loaded != null && loaded.isAlive()) return loaded;
+
         try {
             for (ServerWorld world : server.getWorlds()) {
                 // Use getEntityLookup for better performance
@@ -793,6 +940,19 @@ public class BeastMasterMod implements ModInitializer {
         return null;
     }
 
+    // Resolve a registry entry to its loaded entity - the live cache first, then the world it was last seen in
+    public static Entity findLoadedEntity(MinecraftServer server, PackManager.EntityData entityData) {
+        if (server == null) return null;
+
+        Entity loaded = loadedEntities.get(entityData.entityUuid);
+        if (loaded != null) return loaded;
+
+        if (entityData.dimension == null) {
+            return findEntityInAnyWorld(server, entityData.entityUuid);
+        }
+        ServerWorld world = server.getWorld(entityData.dimension);
+        return world != null ? world.getEntity(entityData.entityUuid) : null;
+    }
 
     private MinecraftServer getServer() {
         // This is a placeholder - you'll need to track the server instance
@@ -802,141 +962,99 @@ public class BeastMasterMod implements ModInitializer {
 
     // Make these public static so BeastCommand can use them
     public static List<PackManager.EntityData> getAllRegisteredPets(MinecraftServer server, UUID playerUUID) {
-        Map<UUID, PackManager.EntityData> uniquePets = new HashMap<>();
         try {
-            for (ServerWorld world : server.getWorlds()) {
-                PackManager manager = PackManager.get(world);
-                List<PackManager.EntityData> worldPets = manager.getPetsByOwner(playerUUID);
-                for (PackManager.EntityData pet : worldPets) {
-                    PackManager.EntityData existing = uniquePets.get(pet.entityUuid);
-                    if (existing == null || pet.timestamp > existing.timestamp) {
-                        uniquePets.put(pet.entityUuid, pet);
-                    }
-                }
-            }
+            return PackManager.get(server).getPetsByOwner(playerUUID);
         } catch (Exception e) {
             LOGGER.error("Error getting all callable pets", e);
         }
-        return new ArrayList<>(uniquePets.values());
+        return new ArrayList<>();
     }
 
     public static List<PackManager.EntityData> getAllRegisteredMounts(MinecraftServer server, UUID playerUUID) {
-        Map<UUID, PackManager.EntityData> uniqueMounts = new HashMap<>();
         try {
-            for (ServerWorld world : server.getWorlds()) {
-                PackManager manager = PackManager.get(world);
-                List<PackManager.EntityData> worldMounts = manager.getMountsByOwner(playerUUID);
-                for (PackManager.EntityData mount : worldMounts) {
-                    PackManager.EntityData existing = uniqueMounts.get(mount.entityUuid);
-                    if (existing == null || mount.timestamp > existing.timestamp) {
-                        uniqueMounts.put(mount.entityUuid, mount);
-                    }
-                }
-            }
+            return PackManager.get(server).getMountsByOwner(playerUUID);
         } catch (Exception e) {
             LOGGER.error("Error getting all callable mounts", e);
         }
-        return new ArrayList<>(uniqueMounts.values());
+        return new ArrayList<>();
     }
 
+    // Outcome of a batch summon - failed entries weren't summoned, dead ones can never be
+    public record SummonResult(List<Entity> summoned, List<PackManager.EntityData> failed, List<UUID> dead) {}
+
     public static Entity loadAndTeleportEntity(MinecraftServer server, PackManager.EntityData entityData, ServerPlayerEntity player) {
-        // Copy the implementation from BeastCommand.java and make it public static
-        try {
-            LOGGER.info("=== SUMMONING ENTITY FROM NBT STORAGE ===");
-            LOGGER.info("Entity: {}", entityData.entityUuid);
+        List<Entity> summoned = summonEntities(server, List.of(entityData), player).summoned();
+        return summoned.isEmpty() ? null : summoned.get(0);
+    }
 
-            ServerWorld targetWorld = (ServerWorld) player.getWorld();
-            UUID entityUuid = entityData.entityUuid;
+    // Summons a whole set in one pass: every entry is checked, its loaded copy (if any) removed,
+    // and its stored snapshot decoded exactly once, straight into the player's world
+    public static SummonResult summonEntities(MinecraftServer server, List<PackManager.EntityData> entries, ServerPlayerEntity player) {
+        long start = System.nanoTime();
+        ServerWorld targetWorld = player.getWorld();
+        PackManager manager = PackManager.get(server);
 
-            // CRITICAL FIX: Check global dead registry first
-            if (isEntityDeadGlobally(entityUuid)) {
-                LOGGER.warn("Entity {} is in global dead registry. Cannot summon.", entityUuid);
-                // Clean up from all tracking
-                for (ServerWorld world : server.getWorlds()) {
-                    PackManager manager = PackManager.get(world);
-                    manager.untrackEntity(entityUuid);
-                }
-                return null;
-            }
+        List<Entity> summoned = new ArrayList<>(entries.size());
+        List<PackManager.EntityData> failed = new ArrayList<>();
+        List<UUID> dead = new ArrayList<>();
 
-            // Check if entity is marked as dead in ANY world before proceeding
-            boolean isEntityDead = false;
-            for (ServerWorld world : server.getWorlds()) {
-                PackManager manager = PackManager.get(world);
-                Optional<PackManager.EntityData> data = manager.getEntityData(entityUuid);
-                if (data.isPresent() && !data.get().isAlive) {
-                    isEntityDead = true;
-                    LOGGER.warn("Entity {} is marked as DEAD in world {}. Cannot summon.", entityUuid, world.getRegistryKey().getValue());
-                    break;
-                }
-            }
-            
-            if (isEntityDead) {
-                // Mark as globally dead and clean up
-                markEntityAsDeadGlobally(entityUuid);
-                for (ServerWorld world : server.getWorlds()) {
-                    PackManager manager = PackManager.get(world);
-                    manager.untrackEntity(entityUuid);
-                    
-                    // Also remove any loaded dead entity
-                    Entity existingEntity = world.getEntity(entityUuid);
-                    if (existingEntity != null && !existingEntity.isAlive()) {
-                        existingEntity.remove(Entity.RemovalReason.DISCARDED);
+        for (PackManager.EntityData entityData : entries) {
+            UUID entityUuid = entityData.entityUuid;
+            try {
+                // CRITICAL FIX: Dead in the registry or globally - never summon it again
+                if (!entityData.isAlive || isEntityDeadGlobally(entityUuid)) {
+                    LOGGER.warn("Entity {} is marked as DEAD. Cannot summon.", entityUuid);
+                    markEntityAsDeadGlobally(entityUuid);
+
+                    Entity loaded = findLoadedEntity(server, entityData);
+                    if (loaded != null) {
+                        loaded.remove(Entity.RemovalReason.DISCARDED);
                     }
+                    dead.add(entityUuid);
+                    continue;
                 }
-                return null;
-            }
 
-            // Remove from loaded worlds
-            for (ServerWorld world : server.getWorlds()) {
-                Entity existingEntity = world.getEntity(entityUuid);
-                if (existingEntity != null && existingEntity.isAlive()) {
-                    LOGGER.info("Removing entity from loaded world: {}", world.getRegistryKey().getValue());
+                // Keep anything that changed on the loaded copy since it was last stored, then take it out of its world
+                Entity existingEntity = findLoadedEntity(server, entityData);
+                if (existingEntity != null) {
+                    if (existingEntity.isAlive()) {
+                        manager.storeEntityNbt(existingEntity);
+                    }
+                    LOGGER.debug("Removing entity from loaded world: {}", existingEntity.getWorld().getRegistryKey().getValue());
                     existingEntity.remove(Entity.RemovalReason.DISCARDED);
                 }
 
-                // Remove from tracking in EVERY world
-                PackManager manager = PackManager.get(world);
-                if (manager.isEntityTracked(entityUuid)) {
-                    manager.untrackEntity(entityUuid);
+                if (entityData.snapshot == null) {
+                    LOGGER.warn("No NBT data stored for entity {}. Cannot summon.", entityUuid);
+                    failed.add(entityData);
+                    continue;
                 }
-            }
-
-            if (entityData.entityNbt == null) {
-                LOGGER.warn("No NBT data stored for entity {}. Cannot summon.", entityUuid);
-                return null;
-            }
 
-            // Create new entity in target dimension
-            LOGGER.info("Creating new entity in target dimension from NBT");
-            Entity newEntity = EntityType.getEntityFromNbt(entityData.entityNbt, targetWorld).orElse(null);
-            if (newEntity == null) {
-                LOGGER.error("Failed to create entity from NBT data");
-                return null;
+                // The entity is created directly in the target world - no Dimension rewrite needed
+                Entity newEntity = EntityType.getEntityFromNbt(entityData.snapshot.decode(), targetWorld).orElse(null);
+                if (newEntity == null) {
+                    LOGGER.error("Failed to create entity {} from NBT data", entityUuid);
+                    failed.add(entityData);
+                    continue;
+                }
+                newEntity.refreshPositionAndAngles(player.getX(), player.getY(), player.getZ(), player.getYaw(), 0);
+
+                // Re-track before spawning so ENTITY_LOAD sees an unchanged entity and doesn't serialize it again
+                manager.recordSummon(entityData, newEntity);
+                if (!targetWorld.spawnEntity(newEntity)) {
+                    LOGGER.error("Failed to spawn entity {} in {}", entityUuid, targetWorld.getRegistryKey().getValue());
+                    failed.add(entityData);
+                    continue;
+                }
+                summoned.add(newEntity);
+            } catch (Exception e) {
+                LOGGER.error("Error summoning entity {} from NBT storage", entityUuid, e);
+                failed.add(entityData);
             }
-
-            // Update dimension in NBT to match target world
-            NbtCompound newNbt = newEntity.writeNbt(new NbtCompound());
-            newNbt.putString("Dimension", targetWorld.getRegistryKey().getValue().toString());
-            newEntity.readNbt(newNbt);
-
-            // Position in target world
-            newEntity.refreshPositionAndAngles(player.getX(), player.getY(), player.getZ(), player.getYaw(), 0);
-            LOGGER.info("Spawning entity at position: {}, {}, {}", player.getX(), player.getY(), player.getZ());
-            targetWorld.spawnEntity(newEntity);
-
-            LOGGER.info("Successfully summoned entity to dimension: {}", targetWorld.getRegistryKey().getValue());
-
-            // Update tracking ONLY in target world
-            PackManager manager = PackManager.get(targetWorld);
-            manager.storeEntityNbt(newEntity);
-
-            LOGGER.info("=== SUMMONING COMPLETE ===");
-            return newEntity;
-
-        } catch (Exception e) {
-            LOGGER.error("Error summoning entity from NBT storage", e);
         }
-        return null;
+
+        LOGGER.info("Summoned {} of {} entities to {} in {} ms", summoned.size(), entries.size(),
+            targetWorld.getRegistryKey().getValue(), String.format("%.2f", (System.nanoTime() - start) / 1000000.0));
+        return new SummonResult(summoned, failed, dead);
     }
 }
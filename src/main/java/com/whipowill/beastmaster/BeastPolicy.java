@@ -0,0 +1,244 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.passive.*;
+import net.minecraft.util.registry.Registry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Read-only snapshot of BeastConfig, compiled once per (re)load and published through
+// BeastMasterMod.POLICY. Hot paths read it instead of re-deriving values from the config on
+// every call - percentages become fractions, ranges are pre-squared and the type lists are sets.
+// Per-type settings (entityOverrides) are resolved into one TypeRules per registered EntityType.
+// Nothing here changes after compile(), so any thread can read it.
+public final class BeastPolicy {
+    private static int nextGeneration = 1;
+
+    // Bumped on every compile, so roles cached on entities get worked out again (see BeastMasterMod.beastInfo)
+    public final int generation;
+
+    public final boolean disableFriendlyFire;
+    public final boolean petsAttackHostileMobs;
+    public final boolean enableWhistleSounds;
+    public final boolean petRegenEnabled;   // Any pet type regenerates
+    public final boolean mountRegenEnabled; // Same for mounts
+    public final double aggressionRange;
+    public final double aggressionRangeSq;
+    public final long whistleCooldownMillis;
+    public final long tickBudgetNanos;
+    public final long deadEntityRetentionMillis; // 0 = keep dead entities forever
+    public final int maxDeadEntities;            // 0 = no limit
+
+    // Scheduling, before LoadShedder scales it
+    public final int aggressionIntervalTicks;
+    public final double aggressionRadius;
+    public final int regenIntervalTicks;
+    public final double regenRadius;
+    public final int fastMountSaveIntervalTicks;
+    public final double fastMountSaveRadius;
+    public final int slowMountSaveIntervalTicks;
+    public final double slowMountSaveRadius;
+    public final boolean loadSheddingEnabled;
+    public final float busyMspt;
+    public final float strainedMspt;
+    public final float criticalMspt;
+    public final float loadSheddingRecoveryMspt;
+
+    // Rules per EntityType, indexed by raw registry id. Built from the type ids when the policy
+    // is compiled - a lookup is one array read plus the instanceof checks for vanilla subclasses.
+    static final byte ROLE_KNOWN = 1;           // Set on every entry
+    static final byte ROLE_PET = 2;             // Configured or vanilla pet
+    static final byte ROLE_MOUNT = 4;           // Configured mount
+    static final byte ROLE_TAMEABLE_MOUNT = 8;  // Vanilla horse/donkey/mule/llama - a mount once tamed
+    static final byte ROLE_SADDLE_MOUNT = 16;   // Pig - a mount once saddled
+    static final byte ROLE_AGGRESSIVE = 32;     // Listed in aggressivePets
+    private final TypeRules[] rulesByType;
+    private final TypeRules unregistered; // Types registered after this policy was compiled
+
+    // Everything that only depends on an entity's type
+    public static final class TypeRules {
+        final byte roles;
+        public final boolean regen;
+        public final boolean immortal;
+        public final float fightHealthFraction; // healthRequiredToFight / 100
+        public final float moveHealthFraction;  // healthRequiredToMove / 100
+        final TypeRules asPet; // Same type as a vanilla pet subclass (see rulesFor), null if already a pet
+
+        TypeRules(byte roles, boolean regen, boolean immortal, float fightHealthFraction, float moveHealthFraction, TypeRules asPet) {
+            this.roles = roles;
+            this.regen = regen;
+            this.immortal = immortal;
+            this.fightHealthFraction = fightHealthFraction;
+            this.moveHealthFraction = moveHealthFraction;
+            this.asPet = asPet;
+        }
+
+        // Above healthRequiredToFight percent of max health
+        public boolean canFight(LivingEntity entity) {
+            return entity.getHealth() > entity.getMaxHealth() * fightHealthFraction;
+        }
+
+        // Above healthRequiredToMove percent of max health
+        public boolean canCarryRider(LivingEntity entity) {
+            return entity.getHealth() > entity.getMaxHealth() * moveHealthFraction;
+        }
+    }
+
+    private BeastPolicy(BeastConfig config, int generation) {
+        this.generation = generation;
+
+        disableFriendlyFire = config.disableFriendlyFire;
+        petsAttackHostileMobs = config.petsAttackHostileMobs;
+        enableWhistleSounds = config.enableWhistleSounds;
+        aggressionRange = config.petAggressionRange;
+        aggressionRangeSq = aggressionRange * aggressionRange;
+        whistleCooldownMillis = Math.max(0, config.whistleCooldownSeconds) * 1000L;
+        tickBudgetNanos = config.tickBudgetMicros * 1000L;
+        deadEntityRetentionMillis = Math.max(0, config.deadEntityRetentionDays) * 86400000L;
+        maxDeadEntities = Math.max(0, config.maxDeadEntities);
+
+        aggressionIntervalTicks = config.aggressionIntervalTicks;
+        aggressionRadius = config.aggressionRadius;
+        regenIntervalTicks = config.regenIntervalTicks;
+        regenRadius = config.regenRadius;
+        fastMountSaveIntervalTicks = config.fastMountSaveIntervalTicks;
+        fastMountSaveRadius = config.fastMountSaveRadius;
+        slowMountSaveIntervalTicks = config.slowMountSaveIntervalTicks;
+        slowMountSaveRadius = config.slowMountSaveRadius;
+        loadSheddingEnabled = config.loadSheddingEnabled;
+        busyMspt = config.busyMspt;
+        strainedMspt = config.strainedMspt;
+        criticalMspt = config.criticalMspt;
+        loadSheddingRecoveryMspt = config.loadSheddingRecoveryMspt;
+
+        Set<String> petTypes = Set.of(distinct(config.supportedPetEntities));
+        Set<String> mountTypes = Set.of(distinct(config.supportedMountEntities));
+        Set<String> aggressiveTypes = Set.of(distinct(config.aggressivePets));
+        Map<String, BeastConfig.EntityOverride> overrides = config.entityOverrides != null ? withoutNulls(config.entityOverrides) : Map.of();
+
+        float fightFraction = config.healthRequiredToFight / 100f;
+        float moveFraction = config.healthRequiredToMove / 100f;
+        TypeRules petDefaults = new TypeRules(ROLE_KNOWN, config.petRegen, config.petImmortal, fightFraction, moveFraction, null);
+        TypeRules mountDefaults = new TypeRules(ROLE_KNOWN, config.mountRegen, config.mountImmortal, fightFraction, moveFraction, null);
+
+        boolean petRegen = config.petRegen;
+        boolean mountRegen = config.mountRegen;
+        TypeRules[] table = new TypeRules[Registry.ENTITY_TYPE.getIds().size()];
+        for (EntityType<?> type : Registry.ENTITY_TYPE) {
+            int rawId = Registry.ENTITY_TYPE.getRawId(type);
+            if (rawId >= table.length) table = Arrays.copyOf(table, rawId + 1);
+
+            String entityId = Registry.ENTITY_TYPE.getId(type).toString();
+            byte roles = ROLE_KNOWN;
+
+            // Check if it's in our supported pets list - keep vanilla compatibility
+            if (petTypes.contains(entityId) || type == EntityType.WOLF || type == EntityType.CAT || type == EntityType.PARROT) {
+                roles |= ROLE_PET;
+            }
+            if (mountTypes.contains(entityId)) {
+                roles |= ROLE_MOUNT;
+            }
+            if (type == EntityType.HORSE || type == EntityType.DONKEY || type == EntityType.MULE ||
+                type == EntityType.LLAMA || type == EntityType.TRADER_LLAMA) {
+                roles |= ROLE_TAMEABLE_MOUNT;
+            }
+            if (type == EntityType.PIG) {
+                roles |= ROLE_SADDLE_MOUNT;
+            }
+            BeastConfig.EntityOverride override = overrides.get(entityId);
+            if (override != null && override.aggressive != null ? override.aggressive : aggressiveTypes.contains(entityId)) {
+                roles |= ROLE_AGGRESSIVE;
+            }
+
+            // Pet settings win for a type that's listed as both
+            if ((roles & ROLE_PET) != 0) {
+                table[rawId] = withOverride(roles, petDefaults, override, null);
+            } else {
+                table[rawId] = withOverride(roles, mountDefaults, override,
+                    withOverride((byte) (roles | ROLE_PET), petDefaults, override, null));
+            }
+
+            // An override only turns on regeneration for its own type's role - tracked pets are
+            // stored as pets, anything else as a mount (see processSweep)
+            if (override != null && Boolean.TRUE.equals(override.regen)) {
+                if ((roles & ROLE_PET) != 0) {
+                    petRegen = true;
+                } else if ((roles & (ROLE_MOUNT | ROLE_TAMEABLE_MOUNT | ROLE_SADDLE_MOUNT)) != 0) {
+                    mountRegen = true;
+                }
+            }
+        }
+        rulesByType = table;
+        unregistered = withOverride(ROLE_KNOWN, mountDefaults, null, withOverride((byte) (ROLE_KNOWN | ROLE_PET), petDefaults, null, null));
+        petRegenEnabled = petRegen;
+        mountRegenEnabled = mountRegen;
+    }
+
+    // Called on the server thread (startup, /beast reload, the config watcher)
+    public static synchronized BeastPolicy compile(BeastConfig config) {
+        return new BeastPolicy(config, nextGeneration++);
+    }
+
+    // Set.of rejects duplicates and nulls, which a hand-edited file can easily contain
+    private static String[] distinct(String[] ids) {
+        if (ids == null) return new String[0];
+        return Arrays.stream(ids).filter(id -> id != null).distinct().toArray(String[]::new);
+    }
+
+    // Gson leaves a null for an entry written as "minecraft:pig": null
+    private static Map<String, BeastConfig.EntityOverride> withoutNulls(Map<String, BeastConfig.EntityOverride> overrides) {
+        Map<String, BeastConfig.EntityOverride> copy = new HashMap<>();
+        overrides.forEach((id, override) -> {
+            if (id != null && override != null) copy.put(id, override);
+        });
+        return copy;
+    }
+
+    private static TypeRules withOverride(byte roles, TypeRules defaults, BeastConfig.EntityOverride override, TypeRules asPet) {
+        if (override == null) {
+            return new TypeRules(roles, defaults.regen, defaults.immortal, defaults.fightHealthFraction, defaults.moveHealthFraction, asPet);
+        }
+        return new TypeRules(roles,
+            override.regen != null ? override.regen : defaults.regen,
+            override.immortal != null ? override.immortal : defaults.immortal,
+            override.healthRequiredToFight != null ? override.healthRequiredToFight / 100f : defaults.fightHealthFraction,
+            override.healthRequiredToMove != null ? override.healthRequiredToMove / 100f : defaults.moveHealthFraction,
+            asPet);
+    }
+
+    byte rolesOf(Entity entity) {
+        TypeRules rules = rulesFor(entity);
+        return (byte) (rules.roles | vanillaMountRoles(entity, rules.roles));
+    }
+
+    public TypeRules rulesFor(Entity entity) {
+        TypeRules rules = rulesFor(entity.getType());
+        // A mod's own type that extends a vanilla pet is still a pet
+        return rules.asPet != null && isVanillaPet(entity) ? rules.asPet : rules;
+    }
+
+    // Only depends on the type - vanilla subclasses registered under another id aren't included
+    TypeRules rulesFor(EntityType<?> type) {
+        int rawId = Registry.ENTITY_TYPE.getRawId(type);
+        return rawId >= 0 && rawId < rulesByType.length ? rulesByType[rawId] : unregistered;
+    }
+
+    private static boolean isVanillaPet(Entity entity) {
+        return entity instanceof WolfEntity || entity instanceof CatEntity || entity instanceof ParrotEntity;
+    }
+
+    // Keep vanilla compatibility for subclasses of the vanilla mounts too
+    private static byte vanillaMountRoles(Entity entity, byte roles) {
+        if ((roles & (ROLE_TAMEABLE_MOUNT | ROLE_SADDLE_MOUNT)) != 0) return 0;
+        if (entity instanceof HorseEntity || entity instanceof DonkeyEntity ||
+            entity instanceof MuleEntity || entity instanceof LlamaEntity) {
+            return ROLE_TAMEABLE_MOUNT;
+        }
+        return entity instanceof PigEntity ? ROLE_SADDLE_MOUNT : 0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+// Runs the periodic jobs spread out over their period instead of all at once:
+// each job visits every item (player, entity, ...) once per period, a slice per tick,
+// and queues the actual per-entity work on the budgeted work queue.
+public class BeastScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger("BeastMaster");
+
+    private final List<Job<?>> jobs = new ArrayList<>();
+    private final BeastWorkQueue workQueue = new BeastWorkQueue();
+
+    private static final class Job<T> {
+        final String name;
+        final IntSupplier periodSource;
+        final Function<MinecraftServer, List<T>> source;
+        final BiConsumer<MinecraftServer, T> action;
+
+        List<T> items = Collections.emptyList();
+        int period; // Read from periodSource at the start of each cycle
+        int cursor;
+        int cycleTick;
+
+        // Timing for the cycle in progress and the last finished one - scheduling plus the
+        // queued work the job's items turned into (charged when the work queue runs it)
+        long tickNanos;
+        long cycleNanos;
+        long cycleMaxTickNanos;
+        int cycleWorkItems;
+        int lastItems;
+        int lastWorkItems;
+        long lastCycleNanos;
+        long lastMaxTickNanos;
+
+        Job(String name, IntSupplier periodSource, int phase, Function<MinecraftServer, List<T>> source, BiConsumer<MinecraftServer, T> action) {
+            this.name = name;
+            this.periodSource = periodSource;
+            this.period = Math.max(1, periodSource.getAsInt());
+            this.source = source;
+            this.action = action;
+            this.cycleTick = phase % period; // Staggers jobs so their cycles don't all start on the same tick
+        }
+
+        void tick(MinecraftServer server) {
+            long start = System.nanoTime();
+
+            if (cycleTick == 0) {
+                period = Math.max(1, periodSource.getAsInt()); // Period changes (load shedding) apply from the next cycle
+                items = source.apply(server);
+                cursor = 0;
+            }
+
+            // Process up to this tick's share of the cycle
+            int target = (int) ((long) items.size() * (cycleTick + 1) / period);
+            while (cursor < target) {
+                T item = items.get(cursor++);
+                try {
+                    action.accept(server, item);
+                } catch (Exception e) {
+                    LOGGER.error("Error in scheduled job {}", name, e);
+                }
+            }
+
+            tickNanos = System.nanoTime() - start;
+        }
+
+        // Called once the work queue has drained for this tick, with this job's share of it
+        void endTick(BeastWorkQueue.JobWork work) {
+            long elapsed = tickNanos + work.nanos();
+            cycleNanos += elapsed;
+            cycleMaxTickNanos = Math.max(cycleMaxTickNanos, elapsed);
+            cycleWorkItems += work.items();
+
+            if (++cycleTick >= period) {
+                lastItems = items.size();
+                lastWorkItems = cycleWorkItems;
+                lastCycleNanos = cycleNanos;
+                lastMaxTickNanos = cycleMaxTickNanos;
+                cycleNanos = 0;
+                cycleMaxTickNanos = 0;
+                cycleWorkItems = 0;
+                cycleTick = 0;
+                items = Collections.emptyList(); // Don't hold on to players/entities between cycles
+            }
+        }
+    }
+
+    // Timing of a job's last finished cycle, including the queued work it caused
+    public record JobStats(String name, int period, int items, int workItems, double avgMicrosPerTick, double maxMicrosPerTick) {}
+
+    public <T> void addJob(String name, int period, Function<MinecraftServer, List<T>> source, BiConsumer<MinecraftServer, T> action) {
+        addJob(name, () -> period, source, action);
+    }
+
+    // Period is re-read at the start of every cycle, so it can follow config and server load
+    public <T> void addJob(String name, IntSupplier period, Function<MinecraftServer, List<T>> source, BiConsumer<MinecraftServer, T> action) {
+        jobs.add(new Job<>(name, period, jobs.size() * 7, source, action));
+    }
+
+    // Jobs with no per-item split still run once per period, on their own staggered tick
+    public void addJob(String name, int period, Consumer<MinecraftServer> action) {
+        addJob(name, period, server -> List.of(server), (server, ignored) -> action.accept(server));
+    }
+
+    // Jobs queue this tick's share of work, then the queue runs as much as fits in the budget
+    public void tick(MinecraftServer server, long budgetNanos) {
+        for (Job<?> job : jobs) {
+            job.tick(server);
+        }
+        workQueue.drain(budgetNanos);
+        for (Job<?> job : jobs) {
+            job.endTick(workQueue.takeWork(job.name));
+        }
+    }
+
+    public BeastWorkQueue getWorkQueue() {
+        return workQueue;
+    }
+
+    public List<JobStats> getStats() {
+        List<JobStats> stats = new ArrayList<>();
+        for (Job<?> job : jobs) {
+            stats.add(new JobStats(job.name, job.period, job.lastItems, job.lastWorkItems,
+                job.lastCycleNanos / 1000.0 / job.period, job.lastMaxTickNanos / 1000.0));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,134 @@
+package com.whipowill.beastmaster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Per-entity background work, drained under a per-tick time budget.
+// Work is queued per player and taken round-robin, so one player with hundreds of pets
+// only delays their own work - whatever doesn't fit in a tick carries over to the next.
+public class BeastWorkQueue {
+    private static final Logger LOGGER = LoggerFactory.getLogger("BeastMaster");
+    public static final UUID SERVER_WORK = new UUID(0L, 0L); // Owner key for work that belongs to no player
+
+    private record WorkKey(String job, UUID target) {}
+
+    private record WorkItem(WorkKey key, Runnable task, long seq) {}
+
+    // Items run and time spent on one job's work since the scheduler last collected it
+    public record JobWork(int items, long nanos) {}
+
+    private static final class WorkTotals {
+        int items;
+        long nanos;
+    }
+
+    private final Map<UUID, ArrayDeque<WorkItem>> queues = new HashMap<>();
+    private final ArrayDeque<UUID> rotation = new ArrayDeque<>(); // Owners with queued work, in turn order
+    private final Set<WorkKey> pendingKeys = new HashSet<>();
+    private final Map<String, WorkTotals> workByJob = new HashMap<>();
+
+    private int depth;
+    private int executedLastTick;
+    private int deferredLastTick;
+    private long totalDeferred;
+    private long nanosLastTick;
+
+    // Each item counts towards totalDeferred once, the first time it's left over. Items queued
+    // before countedBefore have been through a drain already; countedStillQueued of them are left
+    private long nextSeq;
+    private long countedBefore;
+    private int countedStillQueued;
+
+    // Returns false if the same job is still queued for the same target
+    public boolean submit(UUID owner, String job, UUID target, Runnable task) {
+        WorkKey key = new WorkKey(job, target);
+        if (!pendingKeys.add(key)) return false;
+
+        ArrayDeque<WorkItem> queue = queues.get(owner);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(owner, queue);
+            rotation.addLast(owner);
+        }
+        queue.addLast(new WorkItem(key, task, nextSeq++));
+        depth++;
+        return true;
+    }
+
+    // Runs queued work until the budget is used up; at least one item always runs so nothing starves
+    public void drain(long budgetNanos) {
+        long start = System.nanoTime();
+        int executed = 0;
+
+        while (!rotation.isEmpty()) {
+            if (executed > 0 && System.nanoTime() - start >= budgetNanos) break;
+
+            UUID owner = rotation.pollFirst();
+            ArrayDeque<WorkItem> queue = queues.get(owner);
+            WorkItem item = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(owner);
+            } else {
+                rotation.addLast(owner);
+            }
+
+            pendingKeys.remove(item.key());
+            depth--;
+            if (item.seq() < countedBefore) countedStillQueued--;
+            executed++;
+            long itemStart = System.nanoTime();
+            try {
+                item.task().run();
+            } catch (Exception e) {
+                LOGGER.error("Error in queued {} work for {}", item.key().job(), item.key().target(), e);
+            }
+
+            // Charged to the job that queued it, so /beast stats shows what each job really costs
+            WorkTotals totals = workByJob.computeIfAbsent(item.key().job(), job -> new WorkTotals());
+            totals.items++;
+            totals.nanos += System.nanoTime() - itemStart;
+        }
+
+        executedLastTick = executed;
+        deferredLastTick = depth;
+        totalDeferred += depth - countedStillQueued;
+        countedStillQueued = depth;
+        countedBefore = nextSeq;
+        nanosLastTick = System.nanoTime() - start;
+    }
+
+    // Returns and resets what this job's queued items have cost since the last call
+    public JobWork takeWork(String job) {
+        WorkTotals totals = workByJob.remove(job);
+        return totals != null ? new JobWork(totals.items, totals.nanos) : new JobWork(0, 0);
+    }
+
+    public int getQueueDepth() {
+        return depth;
+    }
+
+    public int getExecutedLastTick() {
+        return executedLastTick;
+    }
+
+    // Items left over (carried to the next tick) at the end of the last drain
+    public int getDeferredLastTick() {
+        return deferredLastTick;
+    }
+
+    // Items that have had to wait for a later tick, each counted once however long it waited
+    public long getTotalDeferred() {
+        return totalDeferred;
+    }
+
+    public long getNanosLastTick() {
+        return nanosLastTick;
+    }
+}
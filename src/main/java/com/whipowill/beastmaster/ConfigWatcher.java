@@ -0,0 +1,91 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+// Watches beastmaster.json and reloads it on the server thread when it changes.
+// Only the waiting happens on the watcher thread - the swap itself is BeastMasterMod.reloadConfig.
+public class ConfigWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger("BeastMaster");
+    private static final long SETTLE_MILLIS = 500; // Editors often save in several writes
+
+    private final MinecraftServer server;
+    private final Path file;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(MinecraftServer server, Path file) {
+        this.server = server;
+        this.file = file.toAbsolutePath();
+    }
+
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            LOGGER.error("Could not watch {} for changes - use /beast reload instead", file, e);
+            return;
+        }
+
+        thread = new Thread(this::run, "BeastMaster-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        if (watchService == null) return;
+        try {
+            watchService.close(); // Wakes the watcher thread up with ClosedWatchServiceException
+        } catch (IOException e) {
+            LOGGER.error("Error closing config watcher", e);
+        }
+        watchService = null;
+    }
+
+    private void run() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                if (!isConfigEvent(service.take())) continue;
+
+                // Let the editor finish, then swallow the rest of the burst
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey extra;
+                while ((extra = service.poll()) != null) {
+                    isConfigEvent(extra);
+                }
+
+                // Our own saves (e.g. filling in new fields) leave the file as we know it
+                if (BeastConfig.hasChangedOnDisk()) {
+                    LOGGER.info("{} changed, reloading", file.getFileName());
+                    server.execute(BeastMasterMod::reloadConfig);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Server stopping
+        }
+    }
+
+    private boolean isConfigEvent(WatchKey key) {
+        boolean matched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path changed && changed.equals(file.getFileName())) {
+                matched = true;
+            }
+        }
+        key.reset();
+        return matched;
+    }
+}
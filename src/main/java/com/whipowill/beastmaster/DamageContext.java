@@ -0,0 +1,120 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.damage.DamageSource;
+import net.minecraft.entity.player.PlayerEntity;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+
+// Victim and attacker of one hit on an owned pet/mount, classified once at the start of
+// LivingEntity.damage and reused when it returns (see GenericPetMountMixin).
+// Damage can nest (thorns, explosions), so each thread keeps a stack of these.
+public final class DamageContext {
+    private static final ThreadLocal<ThreadState> STATE = ThreadLocal.withInitial(ThreadState::new);
+    private static final int MAX_DEPTH = 32; // Frames only stay behind if damage throws - don't let them pile up
+
+    // Role and owner as classify needs them - the cache on the entity in game, a stand-in in tests
+    interface Lookup {
+        boolean isCached(Entity entity); // Role and owner already worked out for the current config
+        byte role(Entity entity);
+        UUID owner(Entity entity);
+    }
+
+    private static final Lookup CACHED_ON_ENTITY = new Lookup() {
+        @Override
+        public boolean isCached(Entity entity) {
+            return BeastMasterMod.hasCachedInfo(entity);
+        }
+
+        @Override
+        public byte role(Entity entity) {
+            return BeastMasterMod.getRole(entity);
+        }
+
+        @Override
+        public UUID owner(Entity entity) {
+            return BeastMasterMod.getOwnerUuid(entity);
+        }
+    };
+
+    // Counters are kept per thread (client and server both run damage in singleplayer), so
+    // /beast stats - which runs on the server thread - shows the server's numbers only
+    private static final class ThreadState {
+        final ArrayDeque<DamageContext> stack = new ArrayDeque<>();
+        long hits;            // Every hit on any living entity
+        long classifications; // Victims/attackers whose role and owner had to be worked out, not read from the cache
+    }
+
+    public final LivingEntity victim;
+    public final boolean isPet;
+    public final boolean isMount;
+    public final Entity attacker;             // null for environmental damage
+    public final boolean fromOwner;           // The owner hit their own pet/mount
+    public final boolean fromFriendlyBeast;   // Another supported pet/mount of the same owner
+    public final boolean fromSameOwner;       // Anything else that belongs to the same owner
+
+    private DamageContext(LivingEntity victim, byte role, Entity attacker, boolean fromOwner, boolean fromFriendlyBeast, boolean fromSameOwner) {
+        this.victim = victim;
+        this.isPet = (role & BeastEntity.ROLE_PET) != 0;
+        this.isMount = (role & BeastEntity.ROLE_MOUNT) != 0;
+        this.attacker = attacker;
+        this.fromOwner = fromOwner;
+        this.fromFriendlyBeast = fromFriendlyBeast;
+        this.fromSameOwner = fromSameOwner;
+    }
+
+    // Returns null if the victim isn't an owned pet/mount - the common case, one cached read
+    public static DamageContext classify(LivingEntity victim, DamageSource source) {
+        return classify(victim, source.getAttacker(), CACHED_ON_ENTITY);
+    }
+
+    static DamageContext classify(LivingEntity victim, Entity attacker, Lookup lookup) {
+        ThreadState state = STATE.get();
+        state.hits++;
+        if (!lookup.isCached(victim)) state.classifications++;
+        byte role = lookup.role(victim);
+        if (role == 0) return null;
+
+        UUID ownerUuid = lookup.owner(victim);
+        if (ownerUuid == null) return null;
+
+        boolean fromOwner = false;
+        boolean fromFriendlyBeast = false;
+        boolean fromSameOwner = false;
+        if (attacker instanceof PlayerEntity player) {
+            fromOwner = player.getUuid().equals(ownerUuid);
+        } else if (attacker != null && attacker != victim) {
+            if (!lookup.isCached(attacker)) state.classifications++;
+            fromSameOwner = ownerUuid.equals(lookup.owner(attacker));
+            fromFriendlyBeast = fromSameOwner && lookup.role(attacker) != 0;
+        }
+        return new DamageContext(victim, role, attacker, fromOwner, fromFriendlyBeast, fromSameOwner);
+    }
+
+    public static void push(DamageContext context) {
+        ArrayDeque<DamageContext> stack = STATE.get().stack;
+        if (stack.size() >= MAX_DEPTH) {
+            stack.clear();
+        }
+        stack.push(context);
+    }
+
+    // The context pushed for this victim, if its damage call is the one returning
+    public static DamageContext popFor(LivingEntity victim) {
+        ArrayDeque<DamageContext> stack = STATE.get().stack;
+        DamageContext top = stack.peek();
+        if (top == null || top.victim != victim) return null;
+        return stack.pop();
+    }
+
+    // This thread's counts
+    public static long getHits() {
+        return STATE.get().hits;
+    }
+
+    public static long getClassifications() {
+        return STATE.get().classifications;
+    }
+}
@@ -0,0 +1,283 @@
+package com.whipowill.beastmaster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Append-only log of permanently dead entity UUIDs with their death time (24 bytes per record).
+// Deaths are queued on the server thread and written in batches by a background thread.
+public class DeadEntityJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger("BeastMaster");
+    private static final int MAGIC = 0x424D444A; // "BMDJ"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 24; // UUID msb, UUID lsb, death time (epoch millis)
+    private static final int V1_RECORD_SIZE = 16; // UUID only
+    private static final int COMPACT_MIN_RECORDS = 1024;
+
+    private final Path path;
+    private final Path legacyPath;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BeastMaster-DeadJournal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record Death(long mostSigBits, long leastSigBits, long deathTime) {}
+
+    // Guarded by this - filled by the server thread, drained by the writer
+    private List<Death> pending = new ArrayList<>();
+    private boolean flushQueued = false;
+    private List<Death> drainedSinceSnapshot; // Non-null while a compaction is queued
+
+    // Written on the writer thread (and during load, before anything is queued)
+    private volatile long recordCount = 0;
+
+    public DeadEntityJournal(Path path, Path legacyPath) {
+        this.path = path;
+        this.legacyPath = legacyPath;
+    }
+
+    // Replays the journal (or converts the old text file) into the given set.
+    // Older records carry no death time, so they count as having died now.
+    public void load(DeadEntitySet into) {
+        long now = System.currentTimeMillis();
+        try {
+            boolean rewrite = false;
+
+            if (Files.exists(path)) {
+                rewrite = replay(into, now);
+            } else if (Files.exists(legacyPath)) {
+                for (String line : Files.readAllLines(legacyPath)) {
+                    try {
+                        into.add(UUID.fromString(line.trim()), now);
+                    } catch (IllegalArgumentException e) {
+                        LOGGER.warn("Invalid UUID in dead registry: {}", line);
+                    }
+                }
+                rewrite = true;
+            }
+
+            if (rewrite) {
+                writeCompacted(into);
+                if (Files.exists(legacyPath)) {
+                    Files.move(legacyPath, legacyPath.resolveSibling(legacyPath.getFileName() + ".migrated"),
+                        StandardCopyOption.REPLACE_EXISTING);
+                    LOGGER.info("Migrated dead entity registry to {}", path);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error loading dead entity journal", e);
+        }
+    }
+
+    // Returns true if the file should be rewritten (old version, duplicates or a torn last record)
+    private boolean replay(DeadEntitySet into, long now) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                LOGGER.warn("Dead entity journal {} has no header, rebuilding it", path);
+                return true;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            if (magic != MAGIC || (version != VERSION && version != 1)) {
+                throw new IOException("Unrecognized dead entity journal (magic " + Integer.toHexString(magic) + ", version " + version + ")");
+            }
+
+            int recordSize = version == 1 ? V1_RECORD_SIZE : RECORD_SIZE;
+            long records = (size - HEADER_SIZE) / recordSize;
+            ByteBuffer buffer = ByteBuffer.allocate(recordSize * 4096);
+            long remaining = records;
+            int before = into.size();
+            while (remaining > 0) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), remaining * recordSize));
+                readFully(channel, buffer);
+                buffer.flip();
+                while (buffer.remaining() >= recordSize) {
+                    long msb = buffer.getLong();
+                    long lsb = buffer.getLong();
+                    into.add(msb, lsb, version == 1 ? now : buffer.getLong());
+                    remaining--;
+                }
+            }
+
+            recordCount = records;
+            boolean torn = (size - HEADER_SIZE) % recordSize != 0;
+            if (torn) {
+                LOGGER.warn("Dead entity journal {} ends in a partial record, dropping it", path);
+            }
+            LOGGER.info("Loaded {} dead entities from journal ({} KB in memory)", into.size() - before, into.memoryBytes() / 1024);
+            return torn || version != VERSION || into.size() - before < records;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of dead entity journal");
+            }
+        }
+    }
+
+    // Called on the server thread - only queues, the write happens on the journal thread
+    public void append(UUID entityUuid, long deathTime) {
+        synchronized (this) {
+            pending.add(new Death(entityUuid.getMostSignificantBits(), entityUuid.getLeastSignificantBits(), deathTime));
+            if (flushQueued) return;
+            flushQueued = true;
+        }
+        writer.execute(this::writePending);
+    }
+
+    private void writePending() {
+        List<Death> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            flushQueued = false;
+            if (drainedSinceSnapshot != null) {
+                drainedSinceSnapshot.addAll(batch);
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            if (!Files.exists(path)) {
+                writeCompacted(new DeadEntitySet());
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+            for (Death death : batch) {
+                buffer.putLong(death.mostSigBits());
+                buffer.putLong(death.leastSigBits());
+                buffer.putLong(death.deathTime());
+            }
+            buffer.flip();
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            recordCount += batch.size();
+            LOGGER.debug("Appended {} dead entities to journal", batch.size());
+        } catch (Exception e) {
+            LOGGER.error("Error appending to dead entity journal", e);
+            // Keep the batch so the next flush retries it
+            synchronized (this) {
+                batch.addAll(pending);
+                pending = batch;
+            }
+        }
+    }
+
+    // Rewrites the journal from the live set once it has collected enough stale records.
+    // Called on the server thread; the copy of the live set is the only work done here.
+    public void compactIfNeeded(DeadEntitySet live) {
+        long records = recordCount;
+        if (records < COMPACT_MIN_RECORDS || records < 2L * live.size()) return;
+
+        DeadEntitySet snapshot;
+        synchronized (this) {
+            if (drainedSinceSnapshot != null) return; // Already queued
+            snapshot = live.copy();
+            drainedSinceSnapshot = new ArrayList<>();
+        }
+
+        writer.execute(() -> {
+            // Anything queued after the snapshot was taken must survive the rewrite
+            synchronized (this) {
+                for (Death death : drainedSinceSnapshot) {
+                    snapshot.add(death.mostSigBits(), death.leastSigBits(), death.deathTime());
+                }
+                for (Death death : pending) {
+                    snapshot.add(death.mostSigBits(), death.leastSigBits(), death.deathTime());
+                }
+                pending = new ArrayList<>();
+                drainedSinceSnapshot = null;
+            }
+
+            try {
+                writeCompacted(snapshot);
+                LOGGER.info("Compacted dead entity journal to {} records", recordCount);
+            } catch (Exception e) {
+                LOGGER.error("Error compacting dead entity journal", e);
+            }
+        });
+    }
+
+    private void writeCompacted(DeadEntitySet live) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            IOException[] failure = {null};
+            live.forEach((msb, lsb, deathTime) -> {
+                if (failure[0] != null) return;
+                try {
+                    if (buffer.remaining() < RECORD_SIZE) {
+                        writeBuffer(channel, buffer);
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                    return;
+                }
+                buffer.putLong(msb);
+                buffer.putLong(lsb);
+                buffer.putLong(deathTime);
+            });
+            if (failure[0] != null) throw failure[0];
+            writeBuffer(channel, buffer);
+            channel.force(false);
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = (Files.size(path) - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private static void writeBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Blocks until everything queued so far is on disk (server shutdown)
+    public void flush() {
+        try {
+            writer.submit(this::writePending).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            LOGGER.error("Error flushing dead entity journal", e);
+        }
+    }
+}
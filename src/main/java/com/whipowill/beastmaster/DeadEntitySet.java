@@ -0,0 +1,231 @@
+package com.whipowill.beastmaster;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// UUID -> death time set stored as flat long arrays (open addressing, linear probing).
+// A Bloom filter in front answers the common "not dead" case without touching the table.
+// Not thread-safe: the server thread owns it, the journal only ever sees copies.
+public class DeadEntitySet {
+    private static final int MIN_CAPACITY = 64;
+    private static final int BLOOM_BITS_PER_SLOT = 8; // At most half the slots are used -> 16+ bits per entry
+    private static final int BLOOM_PROBES = 4; // ~0.2% false positives at 16 bits per entry
+    private static final long EMPTY = 0L; // msb == lsb == 0 marks a free slot, the nil UUID is kept aside
+
+    public interface EntryConsumer {
+        void accept(long mostSigBits, long leastSigBits, long deathTime);
+    }
+
+    private long[] msbs;
+    private long[] lsbs;
+    private long[] deathTimes;
+    private long[] bloom;
+    private int size;
+    private boolean hasNil;
+    private long nilDeathTime;
+
+    public DeadEntitySet() {
+        this(MIN_CAPACITY);
+    }
+
+    private DeadEntitySet(int capacity) {
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size + (hasNil ? 1 : 0);
+    }
+
+    public boolean contains(UUID uuid) {
+        return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public boolean contains(long msb, long lsb) {
+        if (msb == EMPTY && lsb == EMPTY) return hasNil;
+        if (!mightContain(msb, lsb)) return false;
+        return indexOf(msb, lsb) >= 0;
+    }
+
+    // Returns the death time, or -1 if the UUID isn't in the set
+    public long getDeathTime(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        if (msb == EMPTY && lsb == EMPTY) return hasNil ? nilDeathTime : -1;
+        if (!mightContain(msb, lsb)) return -1;
+
+        int index = indexOf(msb, lsb);
+        return index >= 0 ? deathTimes[index] : -1;
+    }
+
+    // Returns false if it was already present (the original death time is kept)
+    public boolean add(UUID uuid, long deathTime) {
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), deathTime);
+    }
+
+    public boolean add(long msb, long lsb, long deathTime) {
+        if (msb == EMPTY && lsb == EMPTY) {
+            if (hasNil) return false;
+            hasNil = true;
+            nilDeathTime = deathTime;
+            return true;
+        }
+
+        if ((size + 1) * 2 > msbs.length) {
+            allocateAndRehash(msbs.length * 2);
+        }
+
+        int mask = msbs.length - 1;
+        int index = slot(msb, lsb) & mask;
+        while (msbs[index] != EMPTY || lsbs[index] != EMPTY) {
+            if (msbs[index] == msb && lsbs[index] == lsb) return false;
+            index = (index + 1) & mask;
+        }
+
+        msbs[index] = msb;
+        lsbs[index] = lsb;
+        deathTimes[index] = deathTime;
+        addToBloom(msb, lsb);
+        size++;
+        return true;
+    }
+
+    // Retention: drops every entry that died before the cutoff, returns how many were dropped
+    public int removeDiedBefore(long cutoff) {
+        int before = size();
+        DeadEntitySet kept = new DeadEntitySet(capacityFor(size));
+        forEach((msb, lsb, deathTime) -> {
+            if (deathTime >= cutoff) {
+                kept.add(msb, lsb, deathTime);
+            }
+        });
+        takeFrom(kept);
+        return before - size();
+    }
+
+    // Retention: keeps only the most recent deaths, returns how many were dropped
+    public int trimToNewest(int maxEntries) {
+        int total = size();
+        if (maxEntries <= 0 || total <= maxEntries) return 0;
+
+        long[] times = new long[total];
+        int[] count = {0};
+        forEach((msb, lsb, deathTime) -> times[count[0]++] = deathTime);
+        Arrays.sort(times);
+        long cutoff = times[total - maxEntries];
+
+        // Entries tied on the cutoff time are kept, so this can land slightly above the cap
+        return removeDiedBefore(cutoff);
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasNil) {
+            consumer.accept(EMPTY, EMPTY, nilDeathTime);
+        }
+        for (int i = 0; i < msbs.length; i++) {
+            if (msbs[i] != EMPTY || lsbs[i] != EMPTY) {
+                consumer.accept(msbs[i], lsbs[i], deathTimes[i]);
+            }
+        }
+    }
+
+    public DeadEntitySet copy() {
+        DeadEntitySet copy = new DeadEntitySet(MIN_CAPACITY);
+        copy.msbs = msbs.clone();
+        copy.lsbs = lsbs.clone();
+        copy.deathTimes = deathTimes.clone();
+        copy.bloom = bloom.clone();
+        copy.size = size;
+        copy.hasNil = hasNil;
+        copy.nilDeathTime = nilDeathTime;
+        return copy;
+    }
+
+    // Approximate heap use of the arrays
+    public long memoryBytes() {
+        return 24L * msbs.length + 8L * bloom.length;
+    }
+
+    private int indexOf(long msb, long lsb) {
+        int mask = msbs.length - 1;
+        int index = slot(msb, lsb) & mask;
+        while (msbs[index] != EMPTY || lsbs[index] != EMPTY) {
+            if (msbs[index] == msb && lsbs[index] == lsb) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean mightContain(long msb, long lsb) {
+        // Double hashing: probe i is h1 + i * h2, from a hash independent of the table slot
+        long hash = mix(lsb, msb);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int mask = bloom.length * 64 - 1;
+        for (int i = 0; i < BLOOM_PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private void addToBloom(long msb, long lsb) {
+        long hash = mix(lsb, msb);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int mask = bloom.length * 64 - 1;
+        for (int i = 0; i < BLOOM_PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static int slot(long msb, long lsb) {
+        return (int) (mix(msb, lsb) >>> 32);
+    }
+
+    // Random UUIDs are already well spread, but other versions aren't - run them through a finalizer
+    private static long mix(long msb, long lsb) {
+        long hash = msb * 0x9E3779B97F4A7C15L + lsb;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        deathTimes = new long[capacity];
+        bloom = new long[capacity * BLOOM_BITS_PER_SLOT / 64];
+        size = 0;
+    }
+
+    private void allocateAndRehash(int capacity) {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        long[] oldTimes = deathTimes;
+        allocate(capacity);
+        for (int i = 0; i < oldMsbs.length; i++) {
+            if (oldMsbs[i] != EMPTY || oldLsbs[i] != EMPTY) {
+                add(oldMsbs[i], oldLsbs[i], oldTimes[i]);
+            }
+        }
+    }
+
+    private void takeFrom(DeadEntitySet other) {
+        msbs = other.msbs;
+        lsbs = other.lsbs;
+        deathTimes = other.deathTimes;
+        bloom = other.bloom;
+        size = other.size;
+        hasNil = other.hasNil;
+        nilDeathTime = other.nilDeathTime;
+    }
+}
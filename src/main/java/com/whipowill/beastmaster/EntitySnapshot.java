@@ -0,0 +1,272 @@
+package com.whipowill.beastmaster;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import net.minecraft.nbt.NbtByteArray;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Stored entity NBT in compact form, only decoded when the entity is actually summoned.
+// Compound subtrees (attribute entries, item stacks, brain, ...) are pooled across every
+// snapshot so identical ones are kept once; whatever is left is deflated.
+public final class EntitySnapshot {
+    private static final Interner<Chunk> CHUNK_POOL = Interners.newWeakInterner();
+    private static final byte DIRECT = 0;       // Chunk is the value of its key
+    private static final byte LIST_ELEMENT = 1; // Chunk is appended to the list at its key
+
+    private final String typeId;
+    private final byte[] shell; // Deflated compound with everything that isn't pooled
+    private final String[] keys;
+    private final byte[] kinds;
+    private final Chunk[] chunks;
+
+    // One serialized compound subtree, shared by every snapshot that contains the same bytes
+    public static final class Chunk {
+        private final byte[] data;
+        private final int hash;
+
+        private Chunk(byte[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        public int size() {
+            return data.length;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Chunk chunk && hash == chunk.hash && Arrays.equals(data, chunk.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Size accounting: own bytes are unique to the snapshots, shared bytes are pooled chunks they reference
+    public static final class Footprint {
+        public int snapshots;
+        public long ownBytes;
+        public long sharedBytes;
+
+        public void add(EntitySnapshot snapshot) {
+            snapshots++;
+            ownBytes += snapshot.ownBytes();
+            sharedBytes += snapshot.sharedBytes();
+        }
+
+        public long totalBytes() {
+            return ownBytes + sharedBytes;
+        }
+    }
+
+    private EntitySnapshot(String typeId, byte[] shell, String[] keys, byte[] kinds, Chunk[] chunks) {
+        this.typeId = typeId;
+        this.shell = shell;
+        this.keys = keys;
+        this.kinds = kinds;
+        this.chunks = chunks;
+    }
+
+    public static EntitySnapshot of(NbtCompound nbt) throws IOException {
+        NbtCompound shellNbt = new NbtCompound();
+        List<String> keys = new ArrayList<>();
+        ByteArrayOutputStream kinds = new ByteArrayOutputStream();
+        List<Chunk> chunks = new ArrayList<>();
+
+        for (String key : nbt.getKeys()) {
+            NbtElement value = nbt.get(key);
+            if (value instanceof NbtCompound compound && !compound.isEmpty()) {
+                keys.add(key);
+                kinds.write(DIRECT);
+                chunks.add(CHUNK_POOL.intern(new Chunk(serialize(compound))));
+            } else if (value instanceof NbtList list && !list.isEmpty() && list.getHeldType() == 10) { // 10 = COMPOUND type
+                for (int i = 0; i < list.size(); i++) {
+                    keys.add(key);
+                    kinds.write(LIST_ELEMENT);
+                    chunks.add(CHUNK_POOL.intern(new Chunk(serialize(list.getCompound(i)))));
+                }
+            } else {
+                shellNbt.put(key, value);
+            }
+        }
+
+        return new EntitySnapshot(nbt.getString("id"), deflate(serialize(shellNbt)),
+            keys.toArray(new String[0]), kinds.toByteArray(), chunks.toArray(new Chunk[0]));
+    }
+
+    // Older saves kept the plain serialized compound - convert it once on load
+    public static EntitySnapshot fromRawBytes(byte[] data) throws IOException {
+        return of(deserialize(data));
+    }
+
+    public NbtCompound decode() throws IOException {
+        NbtCompound nbt = deserialize(inflate(shell));
+        for (int i = 0; i < chunks.length; i++) {
+            NbtCompound value = deserialize(chunks[i].data);
+            if (kinds[i] == LIST_ELEMENT) {
+                NbtList list;
+                if (nbt.get(keys[i]) instanceof NbtList existing) {
+                    list = existing;
+                } else {
+                    list = new NbtList();
+                    nbt.put(keys[i], list);
+                }
+                list.add(value);
+            } else {
+                nbt.put(keys[i], value);
+            }
+        }
+        return nbt;
+    }
+
+    public String getTypeId() {
+        return typeId;
+    }
+
+    public long ownBytes() {
+        // Shell plus the per-chunk bookkeeping (key reference, kind, chunk reference)
+        return shell.length + kinds.length + 16L * chunks.length;
+    }
+
+    public long sharedBytes() {
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.size();
+        }
+        return total;
+    }
+
+    public void collectChunks(Set<Chunk> into) {
+        Collections.addAll(into, chunks);
+    }
+
+    // Disk form: chunks are written once per segment and referenced by index
+    public NbtCompound writeNbt(Map<Chunk, Integer> chunkTable) {
+        NbtCompound nbt = new NbtCompound();
+        nbt.putString("type", typeId);
+        nbt.putByteArray("shell", shell);
+        nbt.putByteArray("kinds", kinds);
+
+        NbtList keyList = new NbtList();
+        int[] chunkIndexes = new int[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            keyList.add(NbtString.of(keys[i]));
+            chunkIndexes[i] = chunkTable.computeIfAbsent(chunks[i], chunk -> chunkTable.size());
+        }
+        nbt.put("keys", keyList);
+        nbt.putIntArray("chunks", chunkIndexes);
+        return nbt;
+    }
+
+    public static EntitySnapshot readNbt(NbtCompound nbt, List<Chunk> chunkTable) {
+        NbtList keyList = nbt.getList("keys", 8); // 8 = STRING type
+        int[] chunkIndexes = nbt.getIntArray("chunks");
+
+        String[] keys = new String[chunkIndexes.length];
+        Chunk[] chunks = new Chunk[chunkIndexes.length];
+        for (int i = 0; i < chunkIndexes.length; i++) {
+            keys[i] = keyList.getString(i);
+            chunks[i] = chunkTable.get(chunkIndexes[i]);
+        }
+        return new EntitySnapshot(nbt.getString("type"), nbt.getByteArray("shell"), keys, nbt.getByteArray("kinds"), chunks);
+    }
+
+    public static NbtList writeChunkTable(Map<Chunk, Integer> chunkTable) {
+        Chunk[] ordered = new Chunk[chunkTable.size()];
+        for (Map.Entry<Chunk, Integer> entry : chunkTable.entrySet()) {
+            ordered[entry.getValue()] = entry.getKey();
+        }
+
+        NbtList list = new NbtList();
+        for (Chunk chunk : ordered) {
+            list.add(new NbtByteArray(chunk.data));
+        }
+        return list;
+    }
+
+    // Chunks read from disk go through the pool so they are shared with everything already loaded
+    public static List<Chunk> readChunkTable(NbtList list) {
+        List<Chunk> chunks = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            chunks.add(CHUNK_POOL.intern(new Chunk(((NbtByteArray) list.get(i)).getByteArray())));
+        }
+        return chunks;
+    }
+
+    public static Map<Chunk, Integer> newChunkTable() {
+        return new IdentityHashMap<>(); // Pooled chunks are canonical, so identity is enough
+    }
+
+    private static byte[] serialize(NbtCompound nbt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            NbtIo.write(nbt, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static NbtCompound deserialize(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return NbtIo.read(in);
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated entity snapshot");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt entity snapshot", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
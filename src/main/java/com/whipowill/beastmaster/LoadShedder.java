@@ -0,0 +1,133 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Scales back background pet/mount work while the server is already struggling.
+// Modes step up one at a time as MSPT climbs and only step down once MSPT has dropped
+// a margin below the threshold and stayed there for a while (hysteresis).
+public class LoadShedder {
+    private static final Logger LOGGER = LoggerFactory.getLogger("BeastMaster");
+    private static final int RECOVERY_TICKS = 200; // 10 seconds in a row below the recovery level before easing off
+
+    public enum Mode {
+        NORMAL,    // Everything at configured intervals
+        BUSY,      // Aggression runs half as often with half the radius
+        STRAINED,  // ...and regeneration runs half as often
+        CRITICAL   // ...and the slow mount save pass is paused
+    }
+
+    private Mode mode = Mode.NORMAL;
+    private int ticksRecovered = 0; // Consecutive ticks below the current mode's recovery level
+    private float lastMspt = 0;
+
+    public void update(MinecraftServer server) {
+        update(server.getTickTime(), BeastMasterMod.POLICY); // Exponential moving average of recent tick times
+    }
+
+    void update(float mspt, BeastPolicy policy) {
+        lastMspt = mspt;
+        if (policy == null) return;
+
+        if (!policy.loadSheddingEnabled) {
+            if (mode != Mode.NORMAL) switchTo(Mode.NORMAL);
+            return;
+        }
+
+        if (modeFor(lastMspt, policy).ordinal() > mode.ordinal()) {
+            switchTo(Mode.values()[mode.ordinal() + 1]);
+            return;
+        }
+
+        // Any tick back above the recovery level starts the count over
+        if (mode != Mode.NORMAL && lastMspt < thresholdFor(mode, policy) - policy.loadSheddingRecoveryMspt) {
+            if (++ticksRecovered >= RECOVERY_TICKS) {
+                switchTo(Mode.values()[mode.ordinal() - 1]);
+            }
+        } else {
+            ticksRecovered = 0;
+        }
+    }
+
+    private void switchTo(Mode next) {
+        if (next.ordinal() > mode.ordinal()) {
+            LOGGER.warn("Server at {} MSPT - pet processing {} -> {}", String.format("%.1f", lastMspt), mode, next);
+        } else {
+            LOGGER.info("Server recovered to {} MSPT - pet processing {} -> {}", String.format("%.1f", lastMspt), mode, next);
+        }
+        mode = next;
+        ticksRecovered = 0;
+    }
+
+    private static Mode modeFor(float mspt, BeastPolicy policy) {
+        if (mspt >= policy.criticalMspt) return Mode.CRITICAL;
+        if (mspt >= policy.strainedMspt) return Mode.STRAINED;
+        if (mspt >= policy.busyMspt) return Mode.BUSY;
+        return Mode.NORMAL;
+    }
+
+    // MSPT at which the given mode is entered
+    private static float thresholdFor(Mode mode, BeastPolicy policy) {
+        return switch (mode) {
+            case CRITICAL -> policy.criticalMspt;
+            case STRAINED -> policy.strainedMspt;
+            case BUSY -> policy.busyMspt;
+            case NORMAL -> 0;
+        };
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public float getLastMspt() {
+        return lastMspt;
+    }
+
+    // Effective intervals (ticks) and radii (blocks) for the current mode
+
+    public int aggressionInterval() {
+        int interval = BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.aggressionIntervalTicks : 40;
+        return mode.ordinal() >= Mode.BUSY.ordinal() ? interval * 2 : interval;
+    }
+
+    public double aggressionRadius() {
+        double radius = BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.aggressionRadius : 64;
+        return mode.ordinal() >= Mode.BUSY.ordinal() ? radius / 2 : radius;
+    }
+
+    public int regenInterval() {
+        int interval = BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.regenIntervalTicks : 200;
+        return mode.ordinal() >= Mode.STRAINED.ordinal() ? interval * 2 : interval;
+    }
+
+    // Regen and the fast mount save share one sweep, which runs as often as the more frequent of the two
+    public int sweepInterval() {
+        return Math.min(regenInterval(), fastMountSaveInterval());
+    }
+
+    public double regenRadius() {
+        return BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.regenRadius : 64;
+    }
+
+    public int fastMountSaveInterval() {
+        return BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.fastMountSaveIntervalTicks : 200;
+    }
+
+    public double fastMountSaveRadius() {
+        return BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.fastMountSaveRadius : 16;
+    }
+
+    public int slowMountSaveInterval() {
+        return BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.slowMountSaveIntervalTicks : 1200;
+    }
+
+    public double slowMountSaveRadius() {
+        return BeastMasterMod.POLICY != null ? BeastMasterMod.POLICY.slowMountSaveRadius : 32;
+    }
+
+    public boolean slowMountSaveEnabled() {
+        return mode != Mode.CRITICAL;
+    }
+}
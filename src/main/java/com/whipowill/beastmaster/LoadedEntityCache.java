@@ -0,0 +1,76 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Owned pets/mounts that are loaded right now, by UUID and by owner.
+// Filled on ENTITY_LOAD (and whenever an entity is stored), emptied on ENTITY_UNLOAD -
+// every removal goes through unload, so no entity outlives its world in here.
+public class LoadedEntityCache {
+    private final Map<UUID, Entity> byUuid = new HashMap<>();
+    private final Map<UUID, UUID> ownerOf = new HashMap<>();
+    private final Map<UUID, Map<UUID, Entity>> byOwner = new HashMap<>();
+
+    public void track(Entity entity, UUID ownerUuid) {
+        if (entity.isRemoved()) return;
+
+        UUID entityUuid = entity.getUuid();
+        UUID previousOwner = ownerOf.put(entityUuid, ownerUuid);
+        if (previousOwner != null && !previousOwner.equals(ownerUuid)) {
+            removeFromOwner(previousOwner, entityUuid);
+        }
+        byUuid.put(entityUuid, entity);
+        byOwner.computeIfAbsent(ownerUuid, k -> new HashMap<>()).put(entityUuid, entity);
+    }
+
+    public void untrack(Entity entity) {
+        UUID entityUuid = entity.getUuid();
+        // A fresh copy with the same UUID (dimension change, summon) may already have replaced this one
+        if (byUuid.get(entityUuid) != entity) return;
+
+        byUuid.remove(entityUuid);
+        UUID ownerUuid = ownerOf.remove(entityUuid);
+        if (ownerUuid != null) {
+            removeFromOwner(ownerUuid, entityUuid);
+        }
+    }
+
+    private void removeFromOwner(UUID ownerUuid, UUID entityUuid) {
+        Map<UUID, Entity> owned = byOwner.get(ownerUuid);
+        if (owned == null) return;
+        owned.remove(entityUuid);
+        if (owned.isEmpty()) {
+            byOwner.remove(ownerUuid);
+        }
+    }
+
+    // The loaded entity with this UUID, or null if it isn't loaded
+    public Entity get(UUID entityUuid) {
+        Entity entity = byUuid.get(entityUuid);
+        return entity != null && !entity.isRemoved() ? entity : null;
+    }
+
+    public List<Entity> getByOwner(UUID ownerUuid) {
+        Map<UUID, Entity> owned = byOwner.get(ownerUuid);
+        return owned != null ? new ArrayList<>(owned.values()) : new ArrayList<>();
+    }
+
+    public boolean hasAny(UUID ownerUuid) {
+        return byOwner.containsKey(ownerUuid);
+    }
+
+    public int size() {
+        return byUuid.size();
+    }
+
+    public void clear() {
+        byUuid.clear();
+        ownerOf.clear();
+        byOwner.clear();
+    }
+}
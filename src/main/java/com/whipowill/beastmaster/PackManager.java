@@ -1,179 +1,536 @@
 package com.whipowill.beastmaster;
 
+import com.whipowill.beastmaster.mixins.HorseInventoryAccessor;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.passive.HorseBaseEntity;
+import net.minecraft.entity.passive.PigEntity;
+import net.minecraft.entity.passive.TameableEntity;
+import net.minecraft.inventory.SimpleInventory;
+import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtList;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.registry.Registry;
 import net.minecraft.world.PersistentState;
 import net.minecraft.util.registry.RegistryKey;
 import net.minecraft.world.World;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class PackManager extends PersistentState {
     private static final Logger LOGGER = LoggerFactory.getLogger("PackManager");
     private static final String ENTITIES_KEY = "beastmaster_entities";
+    private static final String CHUNKS_KEY = "sharedChunks";
+    private static final String MIGRATED_KEY = "worldsMigrated";
+    private static final String DATA_NAME = "beastmaster_data";
+    private static final String FORMAT_KEY = "formatVersion";
+    private static final int SEGMENTED_FORMAT = 2; // Entities live in data/beastmaster/segment_XX.dat
+
+    // One registry for the whole server, resolved once and reused until the server stops
+    private static PackManager instance;
+    private static MinecraftServer instanceServer;
 
     public static class EntityData {
         public final UUID entityUuid;
         public final UUID ownerUuid;
         public double x, y, z;
         public final long timestamp;
-        public NbtCompound entityNbt;
+        public EntitySnapshot snapshot; // Serialized entity NBT, decoded only when summoning
         public String customName;
         public boolean isPet;
         public boolean isAlive; // KEEP THIS - we need it for cleanup
+        public RegistryKey<World> dimension; // Last dimension the entity was seen in
+        long fingerprint; // Live-state hash at the last store, not persisted
+        public long deathTime; // When it was first seen dead (0 while alive)
 
         public EntityData(UUID entityUuid, UUID ownerUuid, double x, double y, double z, boolean isPet) {
+            this(entityUuid, ownerUuid, x, y, z, isPet, System.currentTimeMillis());
+        }
+
+        public EntityData(UUID entityUuid, UUID ownerUuid, double x, double y, double z, boolean isPet, long timestamp) {
             this.entityUuid = entityUuid;
             this.ownerUuid = ownerUuid;
             this.x = x;
             this.y = y;
             this.z = z;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
             this.isPet = isPet;
             this.isAlive = true;
         }
+
+        // Detached copy for the background save - snapshots are immutable and can be shared
+        EntityData copy() {
+            EntityData copy = new EntityData(entityUuid, ownerUuid, x, y, z, isPet, timestamp);
+            copy.snapshot = snapshot;
+            copy.customName = customName;
+            copy.isAlive = isAlive;
+            copy.dimension = dimension;
+            copy.deathTime = deathTime;
+            return copy;
+        }
+    }
+
+    // Owner index so per-player queries don't have to scan the whole registry
+    private static class OwnedEntities {
+        final Map<UUID, EntityData> pets = new LinkedHashMap<>();
+        final Map<UUID, EntityData> mounts = new LinkedHashMap<>();
+        // Lowercased name -> entities, sorted so tab completion can take a prefix range
+        final TreeMap<String, Map<UUID, EntityData>> petNames = new TreeMap<>();
+        final TreeMap<String, Map<UUID, EntityData>> mountNames = new TreeMap<>();
+
+        Map<UUID, EntityData> bucketFor(EntityData data) {
+            return data.isPet ? pets : mounts;
+        }
+
+        TreeMap<String, Map<UUID, EntityData>> namesFor(boolean isPet) {
+            return isPet ? petNames : mountNames;
+        }
+
+        boolean isEmpty() {
+            return pets.isEmpty() && mounts.isEmpty();
+        }
     }
 
+    // Dead entries are kept this long (so they can't be resurrected) before they expire
+    public static final long DEAD_ENTRY_RETENTION_MS = 86400000L; // 24 hours
+
+    private record Expiry(long dueTime, UUID entityUuid) {}
+
     private final Map<UUID, EntityData> entityDataMap = new HashMap<>();
+    private final Map<UUID, OwnedEntities> ownerIndex = new HashMap<>();
+    private boolean worldsMigrated = false;
+    private final PriorityQueue<Expiry> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(Expiry::dueTime));
+
+    // Segmented storage: only segments whose entries changed get rewritten on save
+    private PackStore store;
+    private boolean segmented = false;
+    private final BitSet dirtySegments = new BitSet(PackStore.SEGMENT_COUNT);
+    private final Queue<Integer> failedSegments = new ConcurrentLinkedQueue<>(); // Reported by the save thread
+
+    // Converting from the single-file or per-world format: the old data is only let go of
+    // once the segments holding it are confirmed on disk (see save)
+    private boolean conversionPending = false;
+    private final List<PackManager> legacyWorldStates = new ArrayList<>();
+
+    // The registry lives in the overworld's data folder and covers every dimension
+    public static PackManager get(MinecraftServer server) {
+        PackManager cached = instance;
+        if (cached != null && instanceServer == server) {
+            return cached;
+        }
 
-    public static PackManager get(ServerWorld world) {
-        return world.getPersistentStateManager().getOrCreate(
+        PackManager manager = server.getOverworld().getPersistentStateManager().getOrCreate(
             PackManager::fromNbt,
             PackManager::new,
-            "beastmaster_data" // Use consistent name, don't append world path
+            DATA_NAME
         );
+        manager.attachStore(new PackStore(server.getSavePath(WorldSavePath.ROOT).resolve("data").resolve("beastmaster")));
+        manager.migrateWorldStates(server);
+
+        instance = manager;
+        instanceServer = server;
+        return manager;
     }
 
-    public static PackManager fromNbt(NbtCompound nbt) {
-        PackManager manager = new PackManager();
-        try {
-            NbtList entitiesList = nbt.getList(ENTITIES_KEY, 10);
+    // Called when the server stops so a new save doesn't reuse the old registry.
+    // Waits for the background save, so everything from the final world save is on disk afterwards
+    public static void clearCache() {
+        if (instance != null && instance.store != null) {
+            instance.store.close();
+        }
+        instance = null;
+        instanceServer = null;
+    }
+
+    private void attachStore(PackStore packStore) {
+        if (store != null) return;
+        store = packStore;
+
+        if (!segmented) {
+            // Old single-file format (entries came in through fromNbt) - move everything into segments
+            if (!entityDataMap.isEmpty()) {
+                dirtySegments.set(0, PackStore.SEGMENT_COUNT);
+                conversionPending = true;
+                markDirty();
+                LOGGER.info("Converting {} entity registrations to segmented storage", entityDataMap.size());
+            }
+            segmented = true;
+            return;
+        }
 
+        for (NbtCompound segment : store.readAll()) {
+            List<EntitySnapshot.Chunk> chunkTable = EntitySnapshot.readChunkTable(segment.getList(CHUNKS_KEY, 7)); // 7 = BYTE_ARRAY type
+            NbtList entitiesList = segment.getList(ENTITIES_KEY, 10);
             for (int i = 0; i < entitiesList.size(); i++) {
-                NbtCompound entry = entitiesList.getCompound(i);
+                EntityData entityData = readEntry(entitiesList.getCompound(i), chunkTable);
+                if (entityData != null) {
+                    putEntity(entityData);
+                }
+            }
+        }
+        LOGGER.info("Loaded {} entity registrations from storage", entityDataMap.size());
+    }
 
-                // Check if required fields exist
-                if (!entry.containsUuid("entityUUID") || !entry.containsUuid("ownerUUID")) {
-                    LOGGER.warn("Skipping invalid entity entry: missing UUIDs");
+    // Older versions kept a separate registry per world - fold them into this one once
+    private void migrateWorldStates(MinecraftServer server) {
+        if (worldsMigrated) return;
+
+        try {
+            int migrated = 0;
+            for (ServerWorld world : server.getWorlds()) {
+                if (world.getRegistryKey().equals(World.OVERWORLD)) {
+                    for (EntityData data : entityDataMap.values()) {
+                        if (data.dimension == null) {
+                            data.dimension = World.OVERWORLD;
+                        }
+                    }
                     continue;
                 }
 
-                UUID entityUuid = entry.getUuid("entityUUID");
-                UUID ownerUuid = entry.getUuid("ownerUUID");
-                double x = entry.getDouble("x");
-                double y = entry.getDouble("y");
-                double z = entry.getDouble("z");
-                boolean isPet = entry.getBoolean("isPet");
+                PackManager legacy = world.getPersistentStateManager().get(PackManager::fromNbt, DATA_NAME);
+                if (legacy == null || legacy.entityDataMap.isEmpty()) continue;
 
-                EntityData entityData = new EntityData(entityUuid, ownerUuid, x, y, z, isPet);
-
-                if (entry.contains("entityNbt", 10)) { // 10 = COMPOUND type
-                    entityData.entityNbt = entry.getCompound("entityNbt");
+                for (EntityData data : legacy.entityDataMap.values()) {
+                    if (data.dimension == null) {
+                        data.dimension = world.getRegistryKey();
+                    }
+                    mergeEntity(data);
+                    markSegmentDirty(data.ownerUuid);
+                    migrated++;
                 }
 
-                if (entry.contains("customName", 8)) { // 8 = STRING type
-                    entityData.customName = entry.getString("customName");
-                }
+                // Emptied once the merged entries are on disk, so they can't come back
+                legacyWorldStates.add(legacy);
+                conversionPending = true;
+            }
 
-                if (entry.contains("isAlive", 1)) { // 1 = BYTE type for boolean
-                    entityData.isAlive = entry.getBoolean("isAlive");
-                }
+            worldsMigrated = true;
+            markDirty();
+            if (migrated > 0) {
+                LOGGER.info("Migrated {} entity registrations from per-world storage", migrated);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error migrating per-world entity registrations", e);
+        }
+    }
+
+    // Same UUID in several old registries: a dead copy always wins, otherwise the newest one
+    private void mergeEntity(EntityData data) {
+        EntityData existing = entityDataMap.get(data.entityUuid);
+        if (existing == null) {
+            putEntity(data);
+        } else if (!data.isAlive) {
+            if (existing.isAlive) {
+                putEntity(data);
+            }
+        } else if (existing.isAlive && data.timestamp > existing.timestamp) {
+            putEntity(data);
+        }
+    }
+
+    public static PackManager fromNbt(NbtCompound nbt) {
+        PackManager manager = new PackManager();
+        try {
+            manager.segmented = nbt.getInt(FORMAT_KEY) >= SEGMENTED_FORMAT;
+            manager.worldsMigrated = nbt.getBoolean(MIGRATED_KEY);
 
-                manager.entityDataMap.put(entityUuid, entityData);
+            // Only the old single-file format keeps entities in the main file
+            NbtList entitiesList = nbt.getList(ENTITIES_KEY, 10);
+            for (int i = 0; i < entitiesList.size(); i++) {
+                EntityData entityData = readEntry(entitiesList.getCompound(i), Collections.emptyList());
+                if (entityData != null) {
+                    manager.putEntity(entityData);
+                }
+            }
+            if (!manager.segmented) {
+                LOGGER.info("Loaded {} entity registrations from legacy storage", manager.entityDataMap.size());
             }
-            LOGGER.info("Loaded {} entity registrations from storage", manager.entityDataMap.size());
         } catch (Exception e) {
             LOGGER.error("Error loading PackManager from NBT", e);
         }
         return manager;
     }
 
+    // The main file is just a small header now - entities are written per segment in save()
     @Override
     public NbtCompound writeNbt(NbtCompound nbt) {
+        nbt.putInt(FORMAT_KEY, SEGMENTED_FORMAT);
+        nbt.putBoolean(MIGRATED_KEY, worldsMigrated);
+        return nbt;
+    }
+
+    @Override
+    public void save(File file) {
+        // Segments whose background write failed get written again
+        for (Integer segment = failedSegments.poll(); segment != null; segment = failedSegments.poll()) {
+            dirtySegments.set(segment);
+        }
+
+        if (store != null && conversionPending) {
+            if (!writeConversion()) {
+                // The header stays in the old format and the legacy data stays where it is - tried again on the next save
+                LOGGER.error("Could not write the converted registry segments, keeping the old storage for now");
+                return;
+            }
+        } else if (store != null) {
+            flushDirtySegments();
+        }
+        super.save(file);
+    }
+
+    // The first save after a conversion writes its segments and waits for them. Only then is the
+    // new header written and the old per-world data cleared - if the process dies before that,
+    // the next start still finds everything in the old format
+    private boolean writeConversion() {
+        Map<Integer, List<EntityData>> segmentEntries = takeDirtySegments();
+        PackStore target = store;
         try {
-            NbtList entitiesList = new NbtList();
+            if (!target.call(() -> writeSegments(target, segmentEntries))) {
+                return false;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error writing converted registry segments", e);
+            segmentEntries.keySet().forEach(dirtySegments::set);
+            return false;
+        }
 
-            for (EntityData entityData : entityDataMap.values()) {
-                NbtCompound entry = new NbtCompound();
-                entry.putUuid("entityUUID", entityData.entityUuid);
-                entry.putUuid("ownerUUID", entityData.ownerUuid);
-                entry.putDouble("x", entityData.x);
-                entry.putDouble("y", entityData.y);
-                entry.putDouble("z", entityData.z);
-                entry.putBoolean("isPet", entityData.isPet);
+        for (PackManager legacy : legacyWorldStates) {
+            legacy.entityDataMap.clear();
+            legacy.ownerIndex.clear();
+            legacy.markDirty();
+        }
+        legacyWorldStates.clear();
+        conversionPending = false;
+        LOGGER.info("Converted registry written to {} segments", segmentEntries.size());
+        return true;
+    }
 
-                entry.putBoolean("isAlive", entityData.isAlive);
+    // Only copies the dirty segments' entries on the server thread - building the NBT,
+    // compressing and writing happen on the store's save thread
+    private void flushDirtySegments() {
+        if (dirtySegments.isEmpty()) return;
 
-                if (entityData.entityNbt != null) {
-                    entry.put("entityNbt", entityData.entityNbt);
-                }
+        Map<Integer, List<EntityData>> segmentEntries = takeDirtySegments();
+        PackStore target = store;
+        target.execute(() -> writeSegments(target, segmentEntries));
+    }
 
-                if (entityData.customName != null) {
-                    entry.putString("customName", entityData.customName);
-                }
+    // Copies of the entries of every dirty segment, and clears the dirty bits
+    private Map<Integer, List<EntityData>> takeDirtySegments() {
+        // Group the entries of every dirty segment in one pass over the owners
+        Map<Integer, List<EntityData>> segmentEntries = new HashMap<>();
+        for (int segment = dirtySegments.nextSetBit(0); segment >= 0; segment = dirtySegments.nextSetBit(segment + 1)) {
+            segmentEntries.put(segment, new ArrayList<>());
+        }
+        for (Map.Entry<UUID, OwnedEntities> owner : ownerIndex.entrySet()) {
+            List<EntityData> entries = segmentEntries.get(PackStore.segmentFor(owner.getKey()));
+            if (entries == null) continue;
+
+            for (EntityData data : owner.getValue().pets.values()) {
+                entries.add(data.copy());
+            }
+            for (EntityData data : owner.getValue().mounts.values()) {
+                entries.add(data.copy());
+            }
+        }
+        dirtySegments.clear();
+        return segmentEntries;
+    }
 
-                entitiesList.add(entry);
+    // Runs on the save thread. True if every segment was written
+    private boolean writeSegments(PackStore target, Map<Integer, List<EntityData>> segmentEntries) {
+        int written = 0;
+        for (Map.Entry<Integer, List<EntityData>> segment : segmentEntries.entrySet()) {
+            if (target.isReadOnly(segment.getKey())) {
+                // Couldn't be read or moved aside at startup (already logged) - leave the file alone
+                LOGGER.warn("Not saving unreadable registry segment {}", segment.getKey());
+                continue;
             }
+            try {
+                if (segment.getValue().isEmpty()) {
+                    target.deleteSegment(segment.getKey());
+                } else {
+                    // Shared snapshot chunks are written once per segment and referenced by index
+                    Map<EntitySnapshot.Chunk, Integer> chunkTable = EntitySnapshot.newChunkTable();
+                    NbtList entitiesList = new NbtList();
+                    for (EntityData entityData : segment.getValue()) {
+                        entitiesList.add(writeEntry(entityData, chunkTable));
+                    }
+
+                    NbtCompound data = new NbtCompound();
+                    data.put(ENTITIES_KEY, entitiesList);
+                    data.put(CHUNKS_KEY, EntitySnapshot.writeChunkTable(chunkTable));
+                    target.writeSegment(segment.getKey(), data);
+                }
+                written++;
+            } catch (Exception e) {
+                LOGGER.error("Error saving registry segment {}", segment.getKey(), e);
+                failedSegments.add(segment.getKey());
+            }
+        }
+        LOGGER.debug("Saved {} of {} registry segments", written, segmentEntries.size());
+        return written == segmentEntries.size();
+    }
+
+    private void markSegmentDirty(UUID ownerUuid) {
+        dirtySegments.set(PackStore.segmentFor(ownerUuid));
+        markDirty();
+    }
+
+    private static EntityData readEntry(NbtCompound entry, List<EntitySnapshot.Chunk> chunkTable) {
+        // Check if required fields exist
+        if (!entry.containsUuid("entityUUID") || !entry.containsUuid("ownerUUID")) {
+            LOGGER.warn("Skipping invalid entity entry: missing UUIDs");
+            return null;
+        }
+
+        UUID entityUuid = entry.getUuid("entityUUID");
+        UUID ownerUuid = entry.getUuid("ownerUUID");
+        double x = entry.getDouble("x");
+        double y = entry.getDouble("y");
+        double z = entry.getDouble("z");
+        boolean isPet = entry.getBoolean("isPet");
+        long timestamp = entry.contains("timestamp", 4) ? entry.getLong("timestamp") : System.currentTimeMillis(); // 4 = LONG type
 
-            nbt.put(ENTITIES_KEY, entitiesList);
-            LOGGER.debug("Saved {} entities to NBT", entitiesList.size());
+        EntityData entityData = new EntityData(entityUuid, ownerUuid, x, y, z, isPet, timestamp);
+
+        try {
+            if (entry.contains("snapshot", 10)) { // Compact snapshot - kept undecoded
+                entityData.snapshot = EntitySnapshot.readNbt(entry.getCompound("snapshot"), chunkTable);
+            } else if (entry.contains("entityNbt", 7)) { // 7 = BYTE_ARRAY type (plain serialized NBT)
+                entityData.snapshot = EntitySnapshot.fromRawBytes(entry.getByteArray("entityNbt"));
+            } else if (entry.contains("entityNbt", 10)) { // 10 = COMPOUND type (older saves)
+                entityData.snapshot = EntitySnapshot.of(entry.getCompound("entityNbt"));
+            }
         } catch (Exception e) {
-            LOGGER.error("Error saving PackManager to NBT", e);
+            LOGGER.error("Error reading stored NBT for {}", entityUuid, e);
         }
-        return nbt;
+
+        if (entry.contains("customName", 8)) { // 8 = STRING type
+            entityData.customName = entry.getString("customName");
+        }
+
+        if (entry.contains("isAlive", 1)) { // 1 = BYTE type for boolean
+            entityData.isAlive = entry.getBoolean("isAlive");
+        }
+
+        if (!entityData.isAlive) {
+            // Older saves don't know when it died - start the retention clock now
+            entityData.deathTime = entry.contains("deathTime", 4) ? entry.getLong("deathTime") : System.currentTimeMillis();
+        }
+
+        if (entry.contains("dimension", 8)) {
+            entityData.dimension = parseDimension(entry.getString("dimension"));
+        }
+        return entityData;
+    }
+
+    private static NbtCompound writeEntry(EntityData entityData, Map<EntitySnapshot.Chunk, Integer> chunkTable) {
+        NbtCompound entry = new NbtCompound();
+        entry.putUuid("entityUUID", entityData.entityUuid);
+        entry.putUuid("ownerUUID", entityData.ownerUuid);
+        entry.putDouble("x", entityData.x);
+        entry.putDouble("y", entityData.y);
+        entry.putDouble("z", entityData.z);
+        entry.putBoolean("isPet", entityData.isPet);
+        entry.putLong("timestamp", entityData.timestamp);
+
+        entry.putBoolean("isAlive", entityData.isAlive);
+        if (!entityData.isAlive) {
+            entry.putLong("deathTime", entityData.deathTime);
+        }
+
+        if (entityData.dimension != null) {
+            entry.putString("dimension", entityData.dimension.getValue().toString());
+        }
+
+        if (entityData.snapshot != null) {
+            entry.put("snapshot", entityData.snapshot.writeNbt(chunkTable));
+        }
+
+        if (entityData.customName != null) {
+            entry.putString("customName", entityData.customName);
+        }
+        return entry;
     }
 
     public void storeEntityNbt(Entity entity) {
+        storeEntityNbt(entity, false);
+    }
+
+    // force = re-serialize even if the live state looks unchanged (interactions, summons, commands)
+    public void storeEntityNbt(Entity entity, boolean force) {
         try {
             UUID entityUuid = entity.getUuid();
             UUID ownerUuid = BeastMasterMod.getOwnerUuid(entity);
 
             if (ownerUuid != null) {
+                if (entity.isAlive()) {
+                    BeastMasterMod.getLoadedEntities().track(entity, ownerUuid); // Also picks up newly tamed entities
+                }
+
+                // Skip the full NBT save when nothing we can cheaply observe has changed
+                long fingerprint = fingerprint(entity);
+                EntityData existingData = entityDataMap.get(entityUuid);
+                if (!force && existingData != null && existingData.fingerprint == fingerprint) {
+                    return;
+                }
+
                 Vec3d pos = entity.getPos();
                 boolean isPet = BeastConfig.isSupportedPet(entity);
-                boolean isAlive = entity.isAlive();
+                boolean isAlive = entity.isAlive() && !BeastMasterMod.isEntityDeadGlobally(entityUuid);
 
                 // Don't store NBT for dead entities to save space
-                NbtCompound entityNbt = null;
+                EntitySnapshot snapshot = null;
                 if (isAlive) {
-                    entityNbt = new NbtCompound();
+                    NbtCompound entityNbt = new NbtCompound();
                     entity.saveNbt(entityNbt);
                     if (!entityNbt.containsUuid("UUID")) {
                         entityNbt.putUuid("UUID", entityUuid);
                     }
+                    snapshot = EntitySnapshot.of(entityNbt);
                 }
 
-                EntityData existingData = entityDataMap.get(entityUuid);
-
                 if (existingData != null) {
                     // Only update NBT if entity is alive
                     if (isAlive) {
-                        existingData.entityNbt = entityNbt;
+                        existingData.snapshot = snapshot;
                     } else {
                         // Clear NBT if entity is dead
-                        existingData.entityNbt = null;
+                        existingData.snapshot = null;
                     }
                     existingData.isAlive = isAlive;
                     existingData.x = pos.x;
                     existingData.y = pos.y;
                     existingData.z = pos.z;
-                    existingData.customName = entity.hasCustomName() ? entity.getCustomName().getString() : null;
+                    setCustomName(existingData, entity.hasCustomName() ? entity.getCustomName().getString() : null);
+                    existingData.dimension = entity.getWorld().getRegistryKey();
+                    existingData.fingerprint = fingerprint;
                 } else {
                     EntityData newData = new EntityData(entityUuid, ownerUuid, pos.x, pos.y, pos.z, isPet);
-                    newData.entityNbt = entityNbt;
+                    newData.snapshot = snapshot;
+                    newData.dimension = entity.getWorld().getRegistryKey();
                     newData.isAlive = isAlive;
                     newData.customName = entity.hasCustomName() ? entity.getCustomName().getString() : null;
-                    entityDataMap.put(entityUuid, newData);
+                    newData.fingerprint = fingerprint;
+                    putEntity(newData);
+                    existingData = newData;
                 }
 
-                markDirty();
+                if (!isAlive) {
+                    recordDeath(existingData);
+                }
+
+                markSegmentDirty(existingData.ownerUuid);
                 LOGGER.debug("Stored entity: {} (alive: {})", entityUuid, isAlive);
             }
         } catch (Exception e) {
@@ -181,10 +538,51 @@ public class PackManager extends PersistentState {
         }
     }
 
+    // Cheap hash of the state players actually change: position, health, name, gear and pose.
+    // Things like AI memories or breeding cooldowns aren't covered - forced stores pick those up.
+    private static long fingerprint(Entity entity) {
+        long hash = entity.getBlockPos().asLong();
+        hash = 31 * hash + entity.getWorld().getRegistryKey().hashCode();
+        hash = 31 * hash + (entity.isAlive() ? 1 : 0);
+        hash = 31 * hash + (entity.hasCustomName() ? entity.getCustomName().getString().hashCode() : 0);
+
+        if (entity instanceof LivingEntity living) {
+            hash = 31 * hash + Float.floatToIntBits(living.getHealth());
+            hash = 31 * hash + (living.isBaby() ? 1 : 0);
+            for (ItemStack stack : living.getItemsEquipped()) {
+                hash = 31 * hash + stackHash(stack);
+            }
+        }
+        if (entity instanceof TameableEntity tameable) {
+            hash = 31 * hash + (tameable.isSitting() ? 1 : 0);
+        }
+        if (entity instanceof HorseBaseEntity) {
+            SimpleInventory items = ((HorseInventoryAccessor) entity).getItems();
+            if (items != null) {
+                for (int i = 0; i < items.size(); i++) {
+                    hash = 31 * hash + stackHash(items.getStack(i));
+                }
+            }
+        }
+        if (entity instanceof PigEntity pig) {
+            hash = 31 * hash + (pig.isSaddled() ? 1 : 0);
+        }
+        return hash;
+    }
+
+    private static int stackHash(ItemStack stack) {
+        if (stack.isEmpty()) return 0;
+        int hash = stack.getItem().hashCode(); // Items are singletons
+        hash = 31 * hash + stack.getCount();
+        hash = 31 * hash + (stack.hasNbt() ? stack.getNbt().hashCode() : 0);
+        return hash;
+    }
+
     public void untrackEntity(UUID entityUuid) {
         try {
-            if (entityDataMap.remove(entityUuid) != null) {
-                markDirty();
+            EntityData removed = removeEntity(entityUuid);
+            if (removed != null) {
+                markSegmentDirty(removed.ownerUuid);
                 LOGGER.info("Untracked entity: {}", entityUuid);
             }
         } catch (Exception e) {
@@ -192,17 +590,30 @@ public class PackManager extends PersistentState {
         }
     }
 
+    // A summoned entity is its stored snapshot at a new position - only the location needs updating.
+    // Called before it's spawned, so the store on ENTITY_LOAD sees an unchanged entity and skips.
+    public void recordSummon(EntityData data, Entity entity) {
+        Vec3d pos = entity.getPos();
+        data.x = pos.x;
+        data.y = pos.y;
+        data.z = pos.z;
+        data.dimension = entity.getWorld().getRegistryKey();
+        data.fingerprint = fingerprint(entity);
+        markSegmentDirty(data.ownerUuid);
+    }
+
     // New method to mark entity as dead and clear NBT data
     public void markEntityAsDead(UUID entityUuid) {
         try {
             EntityData data = entityDataMap.get(entityUuid);
             if (data != null) {
                 // Clear NBT data to save space, but keep the entry for tracking dead status
-                data.entityNbt = null;
-                data.isAlive = false;
+                data.snapshot = null;
+                data.fingerprint = 0;
+                recordDeath(data);
                 // Also clear custom name to save space
-                data.customName = null;
-                markDirty();
+                setCustomName(data, null);
+                markSegmentDirty(data.ownerUuid);
                 LOGGER.info("Marked entity as dead and cleared NBT data: {}", entityUuid);
             }
         } catch (Exception e) {
@@ -210,31 +621,143 @@ public class PackManager extends PersistentState {
         }
     }
 
-    public List<EntityData> getEntitiesByOwner(UUID ownerUuid) {
-        List<EntityData> result = new ArrayList<>();
-        for (EntityData data : entityDataMap.values()) {
-            if (data.ownerUuid.equals(ownerUuid)) {
-                result.add(data);
-            }
+    // Starts the retention clock and makes sure the death is also known server-wide
+    private void recordDeath(EntityData data) {
+        data.isAlive = false;
+        if (data.deathTime == 0) {
+            data.deathTime = System.currentTimeMillis();
+            expiryQueue.add(new Expiry(data.deathTime + DEAD_ENTRY_RETENTION_MS, data.entityUuid));
+        }
+        BeastMasterMod.markEntityAsDeadGlobally(data.entityUuid);
+    }
+
+    // Called every tick - only looks at entries whose retention has run out
+    public int expireDeadEntries(long now) {
+        int expired = 0;
+        while (!expiryQueue.isEmpty() && expiryQueue.peek().dueTime() <= now) {
+            Expiry expiry = expiryQueue.poll();
+            EntityData data = entityDataMap.get(expiry.entityUuid());
+
+            // Skip stale queue entries (untracked, replaced or not actually due)
+            if (data == null || data.isAlive || data.deathTime + DEAD_ENTRY_RETENTION_MS > now) continue;
+
+            removeEntity(data.entityUuid);
+            markSegmentDirty(data.ownerUuid);
+            expired++;
+        }
+        if (expired > 0) {
+            LOGGER.info("Removed {} entities that have been dead for over a day", expired);
         }
+        return expired;
+    }
+
+    // All registry writes go through these two so the owner index never drifts
+    private void putEntity(EntityData data) {
+        EntityData previous = entityDataMap.put(data.entityUuid, data);
+        if (previous != null) {
+            unindexEntity(previous);
+        }
+        if (!data.isAlive && data.deathTime != 0) {
+            expiryQueue.add(new Expiry(data.deathTime + DEAD_ENTRY_RETENTION_MS, data.entityUuid));
+        }
+        OwnedEntities owned = ownerIndex.computeIfAbsent(data.ownerUuid, owner -> new OwnedEntities());
+        owned.bucketFor(data).put(data.entityUuid, data);
+        owned.namesFor(data.isPet).computeIfAbsent(nameKey(data.customName), name -> new LinkedHashMap<>())
+            .put(data.entityUuid, data);
+    }
+
+    // Names are part of the index key, so they are only changed through here
+    private void setCustomName(EntityData data, String customName) {
+        if (Objects.equals(data.customName, customName)) return;
+
+        OwnedEntities owned = ownerIndex.get(data.ownerUuid);
+        if (owned != null && entityDataMap.get(data.entityUuid) == data) {
+            removeName(owned, data);
+            data.customName = customName;
+            owned.namesFor(data.isPet).computeIfAbsent(nameKey(customName), name -> new LinkedHashMap<>())
+                .put(data.entityUuid, data);
+        } else {
+            data.customName = customName;
+        }
+    }
+
+    private EntityData removeEntity(UUID entityUuid) {
+        EntityData removed = entityDataMap.remove(entityUuid);
+        if (removed != null) {
+            unindexEntity(removed);
+        }
+        return removed;
+    }
+
+    private void unindexEntity(EntityData data) {
+        OwnedEntities owned = ownerIndex.get(data.ownerUuid);
+        if (owned == null) return;
+
+        owned.bucketFor(data).remove(data.entityUuid);
+        removeName(owned, data);
+        if (owned.isEmpty()) {
+            ownerIndex.remove(data.ownerUuid);
+        }
+    }
+
+    public List<EntityData> getEntitiesByOwner(UUID ownerUuid) {
+        OwnedEntities owned = ownerIndex.get(ownerUuid);
+        if (owned == null) return new ArrayList<>();
+
+        List<EntityData> result = new ArrayList<>(owned.pets.size() + owned.mounts.size());
+        result.addAll(owned.pets.values());
+        result.addAll(owned.mounts.values());
         return result;
     }
 
     public List<EntityData> getPetsByOwner(UUID ownerUuid) {
-        List<EntityData> result = new ArrayList<>();
-        for (EntityData data : entityDataMap.values()) {
-            if (data.ownerUuid.equals(ownerUuid) && data.isPet) {
-                result.add(data);
+        OwnedEntities owned = ownerIndex.get(ownerUuid);
+        return owned != null ? new ArrayList<>(owned.pets.values()) : new ArrayList<>();
+    }
+
+    public List<EntityData> getMountsByOwner(UUID ownerUuid) {
+        OwnedEntities owned = ownerIndex.get(ownerUuid);
+        return owned != null ? new ArrayList<>(owned.mounts.values()) : new ArrayList<>();
+    }
+
+    private static void removeName(OwnedEntities owned, EntityData data) {
+        String key = nameKey(data.customName);
+        Map<UUID, EntityData> named = owned.namesFor(data.isPet).get(key);
+        if (named != null) {
+            named.remove(data.entityUuid);
+            if (named.isEmpty()) {
+                owned.namesFor(data.isPet).remove(key);
             }
         }
-        return result;
     }
 
-    public List<EntityData> getMountsByOwner(UUID ownerUuid) {
-        List<EntityData> result = new ArrayList<>();
-        for (EntityData data : entityDataMap.values()) {
-            if (data.ownerUuid.equals(ownerUuid) && !data.isPet) {
-                result.add(data);
+    // Unnamed entities are listed as "Noname" (and "Unknown" is accepted for them too)
+    private static String nameKey(String customName) {
+        if (customName == null || customName.equalsIgnoreCase("Unknown")) return "noname";
+        return customName.toLowerCase(Locale.ROOT);
+    }
+
+    public List<EntityData> getEntitiesByName(UUID ownerUuid, boolean isPet, String name) {
+        OwnedEntities owned = ownerIndex.get(ownerUuid);
+        if (owned == null) return new ArrayList<>();
+
+        Map<UUID, EntityData> named = owned.namesFor(isPet).get(nameKey(name));
+        return named != null ? new ArrayList<>(named.values()) : new ArrayList<>();
+    }
+
+    // Display names of living entities whose name starts with the prefix (case-insensitive)
+    public List<String> getNamesByPrefix(UUID ownerUuid, boolean isPet, String prefix) {
+        List<String> result = new ArrayList<>();
+        OwnedEntities owned = ownerIndex.get(ownerUuid);
+        if (owned == null) return result;
+
+        String from = prefix.toLowerCase(Locale.ROOT);
+        for (Map<UUID, EntityData> named : owned.namesFor(isPet).subMap(from, true, from + Character.MAX_VALUE, true).values()) {
+            for (EntityData data : named.values()) {
+                if (data.isAlive) {
+                    result.add(data.customName != null ? data.customName : "Noname");
+                    break;
+                }
             }
         }
         return result;
@@ -248,6 +771,59 @@ public class PackManager extends PersistentState {
         return Optional.ofNullable(entityDataMap.get(entityUuid));
     }
 
+    // Snapshot memory accounting for one owner (shared chunks counted per reference)
+    public EntitySnapshot.Footprint getFootprint(UUID ownerUuid) {
+        EntitySnapshot.Footprint footprint = new EntitySnapshot.Footprint();
+        for (EntityData data : getEntitiesByOwner(ownerUuid)) {
+            if (data.snapshot != null) {
+                footprint.add(data.snapshot);
+            }
+        }
+        return footprint;
+    }
+
+    public Map<UUID, EntitySnapshot.Footprint> getFootprintByOwner() {
+        Map<UUID, EntitySnapshot.Footprint> result = new HashMap<>();
+        for (EntityData data : entityDataMap.values()) {
+            if (data.snapshot != null) {
+                result.computeIfAbsent(data.ownerUuid, owner -> new EntitySnapshot.Footprint()).add(data.snapshot);
+            }
+        }
+        return result;
+    }
+
+    public Map<String, EntitySnapshot.Footprint> getFootprintByType() {
+        Map<String, EntitySnapshot.Footprint> result = new HashMap<>();
+        for (EntityData data : entityDataMap.values()) {
+            if (data.snapshot != null) {
+                result.computeIfAbsent(data.snapshot.getTypeId(), type -> new EntitySnapshot.Footprint()).add(data.snapshot);
+            }
+        }
+        return result;
+    }
+
+    // Whole registry with every shared chunk counted once - the real in-memory size
+    public EntitySnapshot.Footprint getTotalFootprint() {
+        EntitySnapshot.Footprint footprint = new EntitySnapshot.Footprint();
+        Set<EntitySnapshot.Chunk> chunks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (EntityData data : entityDataMap.values()) {
+            if (data.snapshot != null) {
+                footprint.snapshots++;
+                footprint.ownBytes += data.snapshot.ownBytes();
+                data.snapshot.collectChunks(chunks);
+            }
+        }
+        for (EntitySnapshot.Chunk chunk : chunks) {
+            footprint.sharedBytes += chunk.size();
+        }
+        return footprint;
+    }
+
+    private static RegistryKey<World> parseDimension(String id) {
+        Identifier identifier = Identifier.tryParse(id);
+        return identifier != null ? RegistryKey.of(Registry.WORLD_KEY, identifier) : null;
+    }
+
     public List<EntityData> getAllEntities() {
         return new ArrayList<>(entityDataMap.values());
     }
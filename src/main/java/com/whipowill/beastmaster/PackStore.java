@@ -0,0 +1,137 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Sharded on-disk storage for the pack registry - one gzipped NBT file per owner segment.
+// Writes run in order on a single background thread.
+public class PackStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger("PackManager");
+    public static final int SEGMENT_COUNT = 64;
+
+    private final Path directory;
+    // Segments that failed to read and couldn't be moved aside - never written or deleted
+    private final Set<Integer> readOnlySegments = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BeastMaster-RegistrySave");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PackStore(Path directory) {
+        this.directory = directory;
+    }
+
+    // Queues work for the save thread
+    public void execute(Runnable task) {
+        writer.execute(task);
+    }
+
+    // Runs work on the save thread after everything already queued, and waits for its result
+    public <T> T call(Callable<T> task) throws Exception {
+        try {
+            return writer.submit(task).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    // Blocks until every queued write is on disk, then stops the save thread (server shutdown)
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(60, TimeUnit.SECONDS)) {
+                LOGGER.error("Timed out waiting for registry segments to be written");
+            }
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted while waiting for registry segments to be written", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // All entities of one owner always land in the same segment
+    public static int segmentFor(UUID ownerUuid) {
+        return Math.floorMod(ownerUuid.hashCode(), SEGMENT_COUNT);
+    }
+
+    public List<NbtCompound> readAll() {
+        List<NbtCompound> segments = new ArrayList<>();
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            Path path = segmentPath(segment);
+            if (!Files.exists(path)) continue;
+
+            try {
+                segments.add(NbtIo.readCompressed(path.toFile()));
+            } catch (Exception e) {
+                LOGGER.error("Error reading registry segment {}", path, e);
+                quarantine(segment, path);
+            }
+        }
+        return segments;
+    }
+
+    // The next save would replace an unreadable segment with only what's in memory (nothing from it),
+    // so move the file out of the way first - or, if that fails, never touch it again
+    private void quarantine(int segment, Path path) {
+        Path aside = directory.resolve(path.getFileName() + ".corrupt");
+        if (Files.exists(aside)) {
+            aside = directory.resolve(path.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        }
+
+        try {
+            Files.move(path, aside);
+            LOGGER.error("Registry segment {} could not be read - moved to {}. The pets and mounts registered in it "
+                + "are missing until it is repaired and moved back", path.getFileName(), aside.getFileName());
+        } catch (IOException e) {
+            readOnlySegments.add(segment);
+            LOGGER.error("Registry segment {} could not be read or moved aside - it will not be saved to until the "
+                + "server restarts. Changes to the pets and mounts stored in it are not being kept", path.getFileName(), e);
+        }
+    }
+
+    public boolean isReadOnly(int segment) {
+        return readOnlySegments.contains(segment);
+    }
+
+    // Write to a temp file first and move it over the old one so a crash never leaves half a segment
+    public void writeSegment(int segment, NbtCompound data) throws IOException {
+        if (isReadOnly(segment)) throw new IOException("Registry segment " + segment + " is read-only");
+        Files.createDirectories(directory);
+        Path target = segmentPath(segment);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        NbtIo.writeCompressed(data, temp.toFile());
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public void deleteSegment(int segment) throws IOException {
+        if (isReadOnly(segment)) throw new IOException("Registry segment " + segment + " is read-only");
+        Files.deleteIfExists(segmentPath(segment));
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment_%02d.dat", segment));
+    }
+}
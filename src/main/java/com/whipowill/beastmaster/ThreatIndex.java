@@ -0,0 +1,94 @@
+package com.whipowill.beastmaster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+// Which mobs are targeting which player, kept up to date from MobEntity.setTarget and the
+// brain target scan. Mobs that die, unload or drop their target are pruned when the player's
+// threats are read - the caller says which mobs still count.
+public class ThreatIndex<M> {
+    private final Map<M, UUID> targetOf = new HashMap<>();
+    private final Map<UUID, Set<M>> byPlayer = new HashMap<>();
+
+    // Records the player the mob targets (null if none, or not a player).
+    // Returns true if the mob just started targeting that player
+    public boolean update(M mob, UUID playerUuid) {
+        UUID previous = playerUuid != null ? targetOf.put(mob, playerUuid) : targetOf.remove(mob);
+        if (Objects.equals(previous, playerUuid)) return false;
+
+        if (previous != null) {
+            removeFrom(previous, mob);
+        }
+        if (playerUuid == null) return false;
+
+        byPlayer.computeIfAbsent(playerUuid, k -> new HashSet<>()).add(mob);
+        return true;
+    }
+
+    public void remove(M mob) {
+        UUID playerUuid = targetOf.remove(mob);
+        if (playerUuid != null) {
+            removeFrom(playerUuid, mob);
+        }
+    }
+
+    public void removePlayer(UUID playerUuid) {
+        Set<M> mobs = byPlayer.remove(playerUuid);
+        if (mobs != null) {
+            for (M mob : mobs) {
+                targetOf.remove(mob);
+            }
+        }
+    }
+
+    private void removeFrom(UUID playerUuid, M mob) {
+        Set<M> mobs = byPlayer.get(playerUuid);
+        if (mobs == null) return;
+        mobs.remove(mob);
+        if (mobs.isEmpty()) {
+            byPlayer.remove(playerUuid);
+        }
+    }
+
+    // Mobs recorded against this player that still pass the check - the rest are dropped
+    public List<M> getThreats(UUID playerUuid, Predicate<? super M> stillTargeting) {
+        Set<M> mobs = byPlayer.get(playerUuid);
+        if (mobs == null) return new ArrayList<>();
+
+        List<M> threats = new ArrayList<>(mobs.size());
+        for (Iterator<M> it = mobs.iterator(); it.hasNext(); ) {
+            M mob = it.next();
+            if (stillTargeting.test(mob)) {
+                threats.add(mob);
+            } else {
+                it.remove();
+                targetOf.remove(mob);
+            }
+        }
+        if (mobs.isEmpty()) {
+            byPlayer.remove(playerUuid);
+        }
+        return threats;
+    }
+
+    public List<UUID> getThreatenedPlayers() {
+        return new ArrayList<>(byPlayer.keySet());
+    }
+
+    public int size() {
+        return targetOf.size();
+    }
+
+    public void clear() {
+        targetOf.clear();
+        byPlayer.clear();
+    }
+}
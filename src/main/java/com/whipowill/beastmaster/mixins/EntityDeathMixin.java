@@ -0,0 +1,19 @@
+package com.whipowill.beastmaster.mixins;
+
+import com.whipowill.beastmaster.BeastMasterMod;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.damage.DamageSource;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(LivingEntity.class)
+public abstract class EntityDeathMixin {
+
+    // TAIL only runs once the death actually happened (onDeath returns early for removed/already dead entities)
+    @Inject(method = "onDeath", at = @At("TAIL"))
+    private void onDeathTail(DamageSource source, CallbackInfo ci) {
+        BeastMasterMod.onEntityKilled((LivingEntity)(Object)this);
+    }
+}
@@ -0,0 +1,63 @@
+package com.whipowill.beastmaster.mixins;
+
+import com.whipowill.beastmaster.BeastEntity;
+import net.minecraft.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.UUID;
+
+@Mixin(Entity.class)
+public abstract class EntityRoleCacheMixin implements BeastEntity {
+    @Unique private int beastmaster$cacheGeneration = -1;
+    @Unique private byte beastmaster$role;
+    @Unique private UUID beastmaster$owner;
+    @Unique private boolean beastmaster$ownerConfirmed;
+
+    @Override
+    public int beastmaster$getCacheGeneration() {
+        return beastmaster$cacheGeneration;
+    }
+
+    @Override
+    public byte beastmaster$getRole() {
+        return beastmaster$role;
+    }
+
+    @Override
+    public UUID beastmaster$getOwner() {
+        return beastmaster$owner;
+    }
+
+    @Override
+    public boolean beastmaster$isOwnerConfirmed() {
+        return beastmaster$ownerConfirmed;
+    }
+
+    @Override
+    public void beastmaster$setCache(int generation, byte role, UUID owner, boolean ownerConfirmed) {
+        beastmaster$cacheGeneration = generation;
+        beastmaster$role = role;
+        beastmaster$owner = owner;
+        beastmaster$ownerConfirmed = ownerConfirmed;
+    }
+
+    @Override
+    public void beastmaster$invalidateCache() {
+        beastmaster$cacheGeneration = -1;
+    }
+
+    // A saddled pig's owner is whoever rides it
+    @Inject(method = "addPassenger", at = @At("TAIL"))
+    private void onAddPassenger(Entity passenger, CallbackInfo ci) {
+        beastmaster$invalidateCache();
+    }
+
+    @Inject(method = "removePassenger", at = @At("TAIL"))
+    private void onRemovePassenger(Entity passenger, CallbackInfo ci) {
+        beastmaster$invalidateCache();
+    }
+}
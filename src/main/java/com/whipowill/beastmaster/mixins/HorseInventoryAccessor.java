@@ -0,0 +1,13 @@
+package com.whipowill.beastmaster.mixins;
+
+import net.minecraft.entity.passive.HorseBaseEntity;
+import net.minecraft.inventory.SimpleInventory;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+// Saddle, armor and chest slots of horses, donkeys, mules and llamas
+@Mixin(HorseBaseEntity.class)
+public interface HorseInventoryAccessor {
+    @Accessor("items")
+    SimpleInventory getItems();
+}
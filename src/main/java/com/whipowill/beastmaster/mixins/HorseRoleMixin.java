@@ -0,0 +1,25 @@
+package com.whipowill.beastmaster.mixins;
+
+import com.whipowill.beastmaster.BeastEntity;
+import net.minecraft.entity.passive.HorseBaseEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.UUID;
+
+// Owner and tame state feed the cached role/owner (also covers loading from NBT)
+@Mixin(HorseBaseEntity.class)
+public abstract class HorseRoleMixin {
+
+    @Inject(method = "setOwnerUuid", at = @At("TAIL"))
+    private void onSetOwnerUuid(UUID uuid, CallbackInfo ci) {
+        ((BeastEntity) this).beastmaster$invalidateCache();
+    }
+
+    @Inject(method = "setTame", at = @At("TAIL"))
+    private void onSetTame(boolean tame, CallbackInfo ci) {
+        ((BeastEntity) this).beastmaster$invalidateCache();
+    }
+}
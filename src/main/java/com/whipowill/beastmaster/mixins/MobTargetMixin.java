@@ -0,0 +1,19 @@
+package com.whipowill.beastmaster.mixins;
+
+import com.whipowill.beastmaster.BeastMasterMod;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.mob.MobEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(MobEntity.class)
+public abstract class MobTargetMixin {
+
+    // Feeds the threat index - pets react when something targets their owner instead of polling for it
+    @Inject(method = "setTarget", at = @At("TAIL"))
+    private void onSetTarget(LivingEntity target, CallbackInfo ci) {
+        BeastMasterMod.onMobTargetChanged((MobEntity)(Object)this, target);
+    }
+}
@@ -0,0 +1,25 @@
+package com.whipowill.beastmaster.mixins;
+
+import com.whipowill.beastmaster.BeastEntity;
+import net.minecraft.entity.passive.PigEntity;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.sound.SoundCategory;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+// A pig only counts as a mount while saddled
+@Mixin(PigEntity.class)
+public abstract class PigRoleMixin {
+
+    @Inject(method = "saddle", at = @At("TAIL"))
+    private void onSaddle(SoundCategory sound, CallbackInfo ci) {
+        ((BeastEntity) this).beastmaster$invalidateCache();
+    }
+
+    @Inject(method = "readCustomDataFromNbt", at = @At("TAIL"))
+    private void onReadCustomData(NbtCompound nbt, CallbackInfo ci) {
+        ((BeastEntity) this).beastmaster$invalidateCache();
+    }
+}
@@ -0,0 +1,25 @@
+package com.whipowill.beastmaster.mixins;
+
+import com.whipowill.beastmaster.BeastEntity;
+import net.minecraft.entity.passive.TameableEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.UUID;
+
+// Owner and tame state feed the cached role/owner (also covers loading from NBT)
+@Mixin(TameableEntity.class)
+public abstract class TameableRoleMixin {
+
+    @Inject(method = "setOwnerUuid", at = @At("TAIL"))
+    private void onSetOwnerUuid(UUID uuid, CallbackInfo ci) {
+        ((BeastEntity) this).beastmaster$invalidateCache();
+    }
+
+    @Inject(method = "setTamed", at = @At("TAIL"))
+    private void onSetTamed(boolean tamed, CallbackInfo ci) {
+        ((BeastEntity) this).beastmaster$invalidateCache();
+    }
+}
@@ -0,0 +1,188 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.registry.Registry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeastPolicyTest {
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    private static boolean has(BeastPolicy.TypeRules rules, byte role) {
+        return (rules.roles & role) != 0;
+    }
+
+    @Test
+    void everyRegisteredTypeGetsRules() {
+        BeastPolicy policy = BeastPolicy.compile(new BeastConfig());
+        for (EntityType<?> type : Registry.ENTITY_TYPE) {
+            assertTrue(has(policy.rulesFor(type), BeastPolicy.ROLE_KNOWN), Registry.ENTITY_TYPE.getId(type).toString());
+        }
+    }
+
+    @Test
+    void defaultListsAndVanillaTypes() {
+        BeastPolicy policy = BeastPolicy.compile(new BeastConfig());
+
+        BeastPolicy.TypeRules wolf = policy.rulesFor(EntityType.WOLF);
+        assertTrue(has(wolf, BeastPolicy.ROLE_PET));
+        assertTrue(has(wolf, BeastPolicy.ROLE_AGGRESSIVE));
+        assertNull(wolf.asPet);
+        assertTrue(wolf.regen); // petRegen
+
+        BeastPolicy.TypeRules horse = policy.rulesFor(EntityType.HORSE);
+        assertTrue(has(horse, BeastPolicy.ROLE_MOUNT));
+        assertTrue(has(horse, BeastPolicy.ROLE_TAMEABLE_MOUNT));
+        assertFalse(horse.regen); // mountRegen
+        assertTrue(has(policy.rulesFor(EntityType.TRADER_LLAMA), BeastPolicy.ROLE_TAMEABLE_MOUNT));
+        assertTrue(has(policy.rulesFor(EntityType.PIG), BeastPolicy.ROLE_SADDLE_MOUNT));
+
+        assertEquals(BeastPolicy.ROLE_KNOWN, policy.rulesFor(EntityType.ZOMBIE).roles);
+        assertEquals(BeastPolicy.ROLE_KNOWN, policy.rulesFor(EntityType.VILLAGER).roles);
+    }
+
+    @Test
+    void vanillaPetsStayPetsWhenNotListed() {
+        BeastConfig config = new BeastConfig();
+        config.supportedPetEntities = new String[0];
+        BeastPolicy policy = BeastPolicy.compile(config);
+
+        assertTrue(has(policy.rulesFor(EntityType.CAT), BeastPolicy.ROLE_PET));
+        assertTrue(policy.rulesFor(EntityType.CAT).regen);
+    }
+
+    @Test
+    void overridesApplyToTheirTypeOnly() {
+        BeastConfig config = new BeastConfig();
+        config.supportedPetEntities = new String[] {"minecraft:fox", "minecraft:fox", null};
+        BeastConfig.EntityOverride fox = new BeastConfig.EntityOverride();
+        fox.regen = false;
+        fox.healthRequiredToFight = 50;
+        fox.aggressive = true;
+        config.entityOverrides.put("minecraft:fox", fox);
+        config.entityOverrides.put("minecraft:pig", null);
+        BeastPolicy policy = BeastPolicy.compile(config);
+
+        BeastPolicy.TypeRules rules = policy.rulesFor(EntityType.FOX);
+        assertTrue(has(rules, BeastPolicy.ROLE_PET));
+        assertTrue(has(rules, BeastPolicy.ROLE_AGGRESSIVE));
+        assertFalse(rules.regen);
+        assertTrue(rules.immortal); // Not overridden - petImmortal
+        assertEquals(0.5, rules.fightHealthFraction, 1e-6);
+        assertEquals(0.2, rules.moveHealthFraction, 1e-6);
+
+        BeastPolicy.TypeRules cat = policy.rulesFor(EntityType.CAT);
+        assertTrue(cat.regen);
+        assertEquals(0.2, cat.fightHealthFraction, 1e-6);
+    }
+
+    @Test
+    void regenOverridesOnlyEnableTheirOwnRole() {
+        BeastConfig config = new BeastConfig();
+        config.petRegen = false;
+        config.mountRegen = false;
+        BeastConfig.EntityOverride regen = new BeastConfig.EntityOverride();
+        regen.regen = true;
+
+        config.entityOverrides.put("minecraft:horse", regen);
+        BeastPolicy mountOnly = BeastPolicy.compile(config);
+        assertFalse(mountOnly.petRegenEnabled);
+        assertTrue(mountOnly.mountRegenEnabled);
+
+        config.entityOverrides.clear();
+        config.entityOverrides.put("minecraft:wolf", regen);
+        BeastPolicy petOnly = BeastPolicy.compile(config);
+        assertTrue(petOnly.petRegenEnabled);
+        assertFalse(petOnly.mountRegenEnabled);
+
+        // Neither a pet nor a mount - never swept, so it turns nothing on
+        config.entityOverrides.clear();
+        config.entityOverrides.put("minecraft:zombie", regen);
+        BeastPolicy neither = BeastPolicy.compile(config);
+        assertFalse(neither.petRegenEnabled);
+        assertFalse(neither.mountRegenEnabled);
+    }
+
+    @Test
+    void recompilingStartsANewGeneration() {
+        BeastPolicy first = BeastPolicy.compile(new BeastConfig());
+        BeastConfig config = new BeastConfig();
+        config.aggressivePets = new String[0];
+        BeastPolicy second = BeastPolicy.compile(config);
+
+        assertTrue(second.generation > first.generation);
+        assertTrue(has(first.rulesFor(EntityType.WOLF), BeastPolicy.ROLE_AGGRESSIVE));
+        assertFalse(has(second.rulesFor(EntityType.WOLF), BeastPolicy.ROLE_AGGRESSIVE));
+    }
+
+    // Not a pass/fail check - prints the cost of classifying a stream of damaged mobs, mostly
+    // hostiles and villagers like a mob farm, with the id-string lookup it replaced as the baseline
+    @Test
+    void classificationBenchmark() {
+        BeastConfig config = new BeastConfig();
+        BeastPolicy policy = BeastPolicy.compile(config);
+        Set<String> petIds = Set.of(config.supportedPetEntities);
+        Set<String> mountIds = Set.of(config.supportedMountEntities);
+
+        EntityType<?>[] mix = {
+            EntityType.ZOMBIE, EntityType.ZOMBIE, EntityType.SKELETON, EntityType.SKELETON, EntityType.CREEPER,
+            EntityType.VILLAGER, EntityType.VILLAGER, EntityType.WOLF, EntityType.HORSE, EntityType.PIG
+        };
+        Random random = new Random(1);
+        EntityType<?>[] stream = new EntityType<?>[4096];
+        for (int i = 0; i < stream.length; i++) {
+            stream[i] = mix[random.nextInt(mix.length)];
+        }
+
+        int rounds = 2_000;
+        long sink = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            sink += classifyByIdString(stream, rounds, petIds, mountIds) + classifyByTable(stream, rounds, policy);
+        }
+
+        long start = System.nanoTime();
+        sink += classifyByIdString(stream, rounds, petIds, mountIds);
+        long idStringNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        sink += classifyByTable(stream, rounds, policy);
+        long tableNanos = System.nanoTime() - start;
+
+        double events = (double) stream.length * rounds;
+        System.out.printf("Classifying %.0f damage events: id string %.1f ns/event, compiled table %.1f ns/event (%d)%n",
+            events, idStringNanos / events, tableNanos / events, sink);
+    }
+
+    private static long classifyByIdString(EntityType<?>[] stream, int rounds, Set<String> petIds, Set<String> mountIds) {
+        long supported = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (EntityType<?> type : stream) {
+                String entityId = EntityType.getId(type).toString();
+                if (petIds.contains(entityId) || mountIds.contains(entityId)) supported++;
+            }
+        }
+        return supported;
+    }
+
+    private static long classifyByTable(EntityType<?>[] stream, int rounds, BeastPolicy policy) {
+        long supported = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (EntityType<?> type : stream) {
+                if ((policy.rulesFor(type).roles & (BeastPolicy.ROLE_PET | BeastPolicy.ROLE_MOUNT)) != 0) supported++;
+            }
+        }
+        return supported;
+    }
+}
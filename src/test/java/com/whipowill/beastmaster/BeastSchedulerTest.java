@@ -0,0 +1,100 @@
+package com.whipowill.beastmaster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The jobs here never look at the server, so none is needed
+class BeastSchedulerTest {
+
+    private static List<Integer> items(int count) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    @Test
+    void jobSpreadsItsItemsOverThePeriod() {
+        BeastScheduler scheduler = new BeastScheduler();
+        List<Integer> visited = new ArrayList<>();
+        scheduler.addJob("test", 4, server -> items(8), (server, item) -> visited.add(item));
+
+        for (int tick = 1; tick <= 4; tick++) {
+            scheduler.tick(null, Long.MAX_VALUE);
+            assertEquals(2 * tick, visited.size());
+        }
+        assertEquals(items(8), visited);
+
+        scheduler.tick(null, Long.MAX_VALUE); // Next cycle starts over
+        assertEquals(List.of(0, 1), visited.subList(8, 10));
+    }
+
+    @Test
+    void statsIncludeTheWorkEachJobQueued() {
+        BeastScheduler scheduler = new BeastScheduler();
+        AtomicInteger ran = new AtomicInteger();
+        scheduler.addJob("queues", 2, server -> items(6), (server, item) ->
+            scheduler.getWorkQueue().submit(BeastWorkQueue.SERVER_WORK, "queues", new UUID(0L, item), ran::incrementAndGet));
+        scheduler.addJob("direct", 2, server -> items(3), (server, item) -> {});
+
+        scheduler.tick(null, Long.MAX_VALUE);
+        scheduler.tick(null, Long.MAX_VALUE);
+        assertEquals(6, ran.get());
+
+        BeastScheduler.JobStats queues = scheduler.getStats().get(0);
+        assertEquals("queues", queues.name());
+        assertEquals(2, queues.period());
+        assertEquals(6, queues.items());
+        assertEquals(6, queues.workItems());
+
+        // The second job is staggered by 7 ticks (one tick with period 2) - its cycle isn't done yet
+        assertEquals(0, scheduler.getStats().get(1).items());
+        scheduler.tick(null, Long.MAX_VALUE);
+        BeastScheduler.JobStats direct = scheduler.getStats().get(1);
+        assertEquals(3, direct.items());
+        assertEquals(0, direct.workItems());
+    }
+
+    @Test
+    void workCarriedOverIsChargedWhenItRuns() {
+        BeastScheduler scheduler = new BeastScheduler();
+        scheduler.addJob("slow", 1, server -> items(3), (server, item) ->
+            scheduler.getWorkQueue().submit(BeastWorkQueue.SERVER_WORK, "slow", new UUID(0L, item), () -> {}));
+
+        // No budget - one item runs per tick, and the job re-queues the others (deduplicated)
+        scheduler.tick(null, 0);
+        assertEquals(1, scheduler.getStats().get(0).workItems());
+        assertEquals(2, scheduler.getWorkQueue().getQueueDepth());
+
+        // Item 2 waits again (already counted), item 0 was queued again after it ran and waits too
+        scheduler.tick(null, 0);
+        assertEquals(1, scheduler.getStats().get(0).workItems());
+        assertEquals(2, scheduler.getWorkQueue().getQueueDepth());
+        assertEquals(3, scheduler.getWorkQueue().getTotalDeferred());
+    }
+
+    @Test
+    void periodChangesApplyFromTheNextCycle() {
+        BeastScheduler scheduler = new BeastScheduler();
+        AtomicInteger period = new AtomicInteger(2);
+        List<Integer> visited = new ArrayList<>();
+        scheduler.addJob("test", period::get, server -> items(4), (server, item) -> visited.add(item));
+
+        scheduler.tick(null, Long.MAX_VALUE);
+        period.set(4);
+        scheduler.tick(null, Long.MAX_VALUE);
+        assertEquals(4, visited.size()); // Finished the cycle at the old period
+        assertEquals(2, scheduler.getStats().get(0).period());
+
+        scheduler.tick(null, Long.MAX_VALUE);
+        assertEquals(5, visited.size());
+        assertEquals(4, scheduler.getStats().get(0).period());
+    }
+}
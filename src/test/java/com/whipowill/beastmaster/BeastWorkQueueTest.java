@@ -0,0 +1,107 @@
+package com.whipowill.beastmaster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeastWorkQueueTest {
+    private static final UUID ALICE = new UUID(0L, 1L);
+    private static final UUID BOB = new UUID(0L, 2L);
+    private static final UUID CAROL = new UUID(0L, 3L);
+
+    private final List<String> ran = new ArrayList<>();
+
+    private boolean submit(BeastWorkQueue queue, UUID owner, String job, String name) {
+        return queue.submit(owner, job, UUID.nameUUIDFromBytes(name.getBytes()), () -> ran.add(name));
+    }
+
+    @Test
+    void ownersTakeTurns() {
+        BeastWorkQueue queue = new BeastWorkQueue();
+        submit(queue, ALICE, "regen", "a1");
+        submit(queue, ALICE, "regen", "a2");
+        submit(queue, ALICE, "regen", "a3");
+        submit(queue, BOB, "regen", "b1");
+        submit(queue, BOB, "regen", "b2");
+        submit(queue, CAROL, "regen", "c1");
+
+        queue.drain(Long.MAX_VALUE);
+        assertEquals(List.of("a1", "b1", "c1", "a2", "b2", "a3"), ran);
+        assertEquals(6, queue.getExecutedLastTick());
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    void sameJobAndTargetIsOnlyQueuedOnce() {
+        BeastWorkQueue queue = new BeastWorkQueue();
+        assertTrue(submit(queue, ALICE, "regen", "wolf"));
+        assertFalse(submit(queue, BOB, "regen", "wolf"));
+        assertTrue(submit(queue, ALICE, "aggression", "wolf"));
+        assertEquals(2, queue.getQueueDepth());
+
+        queue.drain(Long.MAX_VALUE);
+        assertEquals(List.of("wolf", "wolf"), ran);
+
+        // Free to queue again once it has run
+        assertTrue(submit(queue, ALICE, "regen", "wolf"));
+    }
+
+    @Test
+    void zeroBudgetRunsOneItemAndCarriesTheRestOver() {
+        BeastWorkQueue queue = new BeastWorkQueue();
+        submit(queue, ALICE, "regen", "a1");
+        submit(queue, ALICE, "regen", "a2");
+        submit(queue, BOB, "regen", "b1");
+
+        queue.drain(0);
+        assertEquals(List.of("a1"), ran);
+        assertEquals(1, queue.getExecutedLastTick());
+        assertEquals(2, queue.getDeferredLastTick());
+        assertEquals(2, queue.getTotalDeferred());
+
+        // Still waiting, but already counted
+        queue.drain(0);
+        assertEquals(List.of("a1", "b1"), ran);
+        assertEquals(1, queue.getDeferredLastTick());
+        assertEquals(2, queue.getTotalDeferred());
+
+        submit(queue, CAROL, "regen", "c1");
+        queue.drain(0);
+        assertEquals(List.of("a1", "b1", "a2"), ran);
+        assertEquals(1, queue.getDeferredLastTick());
+        assertEquals(3, queue.getTotalDeferred());
+
+        queue.drain(0);
+        assertEquals(List.of("a1", "b1", "a2", "c1"), ran);
+        assertEquals(0, queue.getDeferredLastTick());
+        assertEquals(3, queue.getTotalDeferred());
+
+        queue.drain(0); // Nothing queued - nothing runs
+        assertEquals(0, queue.getExecutedLastTick());
+    }
+
+    @Test
+    void workIsChargedToTheJobThatQueuedIt() {
+        BeastWorkQueue queue = new BeastWorkQueue();
+        submit(queue, ALICE, "regen", "a1");
+        submit(queue, BOB, "regen", "b1");
+        submit(queue, BOB, "aggression", "b2");
+        queue.submit(ALICE, "aggression", UUID.randomUUID(), () -> {
+            throw new IllegalStateException("failing work still counts");
+        });
+
+        queue.drain(Long.MAX_VALUE);
+        BeastWorkQueue.JobWork regen = queue.takeWork("regen");
+        assertEquals(2, regen.items());
+        assertTrue(regen.nanos() >= 0);
+        assertEquals(2, queue.takeWork("aggression").items());
+
+        // Reset once taken
+        assertEquals(new BeastWorkQueue.JobWork(0, 0), queue.takeWork("regen"));
+        assertEquals(new BeastWorkQueue.JobWork(0, 0), queue.takeWork("sweep"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.entity.Entity;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DamageContextTest {
+
+    // One victim's role and owner, cached after the first lookup like BeastMasterMod.beastInfo
+    private static final class FakeLookup implements DamageContext.Lookup {
+        final byte role;
+        final UUID owner;
+        boolean cached;
+
+        FakeLookup(byte role, UUID owner) {
+            this.role = role;
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean isCached(Entity entity) {
+            return cached;
+        }
+
+        @Override
+        public byte role(Entity entity) {
+            cached = true;
+            return role;
+        }
+
+        @Override
+        public UUID owner(Entity entity) {
+            cached = true;
+            return owner;
+        }
+    }
+
+    @Test
+    void unownedVictimIsClassifiedOnce() {
+        long hits = DamageContext.getHits();
+        long classifications = DamageContext.getClassifications();
+        FakeLookup zombie = new FakeLookup((byte) 0, null);
+
+        assertNull(DamageContext.classify(null, null, zombie));
+        assertEquals(hits + 1, DamageContext.getHits());
+        assertEquals(classifications + 1, DamageContext.getClassifications());
+
+        // Second hit reads the cache
+        assertNull(DamageContext.classify(null, null, zombie));
+        assertEquals(hits + 2, DamageContext.getHits());
+        assertEquals(classifications + 1, DamageContext.getClassifications());
+    }
+
+    @Test
+    void ownedVictimIsClassifiedOnce() {
+        long hits = DamageContext.getHits();
+        long classifications = DamageContext.getClassifications();
+        FakeLookup wolf = new FakeLookup(BeastEntity.ROLE_PET, UUID.randomUUID());
+
+        DamageContext context = DamageContext.classify(null, null, wolf);
+        assertNotNull(context);
+        assertTrue(context.isPet);
+        assertFalse(context.isMount);
+        assertNull(context.attacker);
+        assertFalse(context.fromOwner);
+        assertFalse(context.fromSameOwner);
+        assertEquals(hits + 1, DamageContext.getHits());
+        assertEquals(classifications + 1, DamageContext.getClassifications());
+
+        assertNotNull(DamageContext.classify(null, null, wolf));
+        assertEquals(hits + 2, DamageContext.getHits());
+        assertEquals(classifications + 1, DamageContext.getClassifications());
+    }
+
+    @Test
+    void countsAreKeptPerThread() throws InterruptedException {
+        long hits = DamageContext.getHits();
+        Thread other = new Thread(() -> DamageContext.classify(null, null, new FakeLookup((byte) 0, null)));
+        other.start();
+        other.join();
+        assertEquals(hits, DamageContext.getHits());
+    }
+}
@@ -0,0 +1,195 @@
+package com.whipowill.beastmaster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadEntityJournalTest {
+    private static final int MAGIC = 0x424D444A;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 24;
+
+    @TempDir
+    Path dir;
+
+    private Path journalPath() {
+        return dir.resolve("dead.journal");
+    }
+
+    private DeadEntityJournal newJournal() {
+        return new DeadEntityJournal(journalPath(), dir.resolve("dead.txt"));
+    }
+
+    private DeadEntitySet reload() {
+        DeadEntitySet set = new DeadEntitySet();
+        newJournal().load(set);
+        return set;
+    }
+
+    private static List<UUID> uuids(int count) {
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+        return uuids;
+    }
+
+    private int headerVersion() throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(journalPath())).getInt(4);
+    }
+
+    @Test
+    void appendedDeathsReplay() {
+        DeadEntityJournal journal = newJournal();
+        journal.load(new DeadEntitySet());
+        List<UUID> dead = uuids(50);
+        for (int i = 0; i < dead.size(); i++) {
+            journal.append(dead.get(i), 1000L + i);
+        }
+        journal.flush();
+
+        DeadEntitySet replayed = reload();
+        assertEquals(dead.size(), replayed.size());
+        for (int i = 0; i < dead.size(); i++) {
+            assertEquals(1000L + i, replayed.getDeathTime(dead.get(i)));
+        }
+    }
+
+    @Test
+    void duplicateRecordsReplayOnceAndGetCompactedOnLoad() throws IOException {
+        DeadEntityJournal journal = newJournal();
+        UUID dead = UUID.randomUUID();
+        journal.append(dead, 1L);
+        journal.append(dead, 2L);
+        journal.flush();
+        assertEquals(HEADER_SIZE + 2 * RECORD_SIZE, Files.size(journalPath()));
+
+        DeadEntitySet replayed = reload();
+        assertEquals(1, replayed.size());
+        assertEquals(1L, replayed.getDeathTime(dead));
+        assertEquals(HEADER_SIZE + RECORD_SIZE, Files.size(journalPath()));
+    }
+
+    @Test
+    void compactionRewritesOnlyTheLiveEntries() throws IOException {
+        DeadEntityJournal journal = newJournal();
+        DeadEntitySet live = new DeadEntitySet();
+        journal.load(live);
+
+        List<UUID> dead = uuids(2_000);
+        for (int i = 0; i < dead.size(); i++) {
+            live.add(dead.get(i), i);
+            journal.append(dead.get(i), i);
+        }
+        journal.flush();
+        assertEquals(HEADER_SIZE + 2_000L * RECORD_SIZE, Files.size(journalPath()));
+
+        // Retention drops most of them - the journal now has far more records than live entries
+        live.removeDiedBefore(1_900);
+        journal.compactIfNeeded(live);
+        UUID afterSnapshot = UUID.randomUUID();
+        journal.append(afterSnapshot, 5_000L); // Queued behind the compaction, must not be lost
+        journal.flush();
+
+        DeadEntitySet replayed = reload();
+        assertEquals(101, replayed.size());
+        for (int i = 0; i < dead.size(); i++) {
+            assertEquals(i >= 1_900, replayed.contains(dead.get(i)), "entry " + i);
+        }
+        assertEquals(5_000L, replayed.getDeathTime(afterSnapshot));
+        assertEquals(HEADER_SIZE + 101L * RECORD_SIZE, Files.size(journalPath()));
+    }
+
+    @Test
+    void smallJournalIsNotCompacted() throws IOException {
+        DeadEntityJournal journal = newJournal();
+        DeadEntitySet live = new DeadEntitySet();
+        journal.load(live);
+        for (UUID dead : uuids(10)) {
+            journal.append(dead, 1L);
+        }
+        journal.flush();
+
+        journal.compactIfNeeded(live); // Empty live set, but below the minimum record count
+        journal.flush();
+        assertEquals(HEADER_SIZE + 10L * RECORD_SIZE, Files.size(journalPath()));
+    }
+
+    @Test
+    void tornTrailingRecordIsDropped() throws IOException {
+        DeadEntityJournal journal = newJournal();
+        List<UUID> dead = uuids(3);
+        for (UUID uuid : dead) {
+            journal.append(uuid, 7L);
+        }
+        journal.flush();
+
+        // A crash in the middle of an append leaves part of a record behind
+        Files.write(journalPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, StandardOpenOption.APPEND);
+
+        DeadEntitySet replayed = reload();
+        assertEquals(3, replayed.size());
+        for (UUID uuid : dead) {
+            assertEquals(7L, replayed.getDeathTime(uuid));
+        }
+        assertEquals(HEADER_SIZE + 3L * RECORD_SIZE, Files.size(journalPath()));
+    }
+
+    @Test
+    void versionOneRecordsReplayAsDyingNow() throws IOException {
+        List<UUID> dead = uuids(2);
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + 16 * dead.size());
+        file.putInt(MAGIC);
+        file.putInt(1);
+        for (UUID uuid : dead) {
+            file.putLong(uuid.getMostSignificantBits());
+            file.putLong(uuid.getLeastSignificantBits());
+        }
+        Files.write(journalPath(), file.array());
+
+        long before = System.currentTimeMillis();
+        DeadEntitySet replayed = reload();
+        long after = System.currentTimeMillis();
+
+        assertEquals(2, replayed.size());
+        for (UUID uuid : dead) {
+            long deathTime = replayed.getDeathTime(uuid);
+            assertTrue(deathTime >= before && deathTime <= after, "death time " + deathTime);
+        }
+
+        // Upgraded to the current format on load
+        assertEquals(2, headerVersion());
+        assertEquals(HEADER_SIZE + 2L * RECORD_SIZE, Files.size(journalPath()));
+    }
+
+    @Test
+    void legacyTextFileIsMigrated() throws IOException {
+        List<UUID> dead = uuids(3);
+        Path legacy = dir.resolve("dead.txt");
+        List<String> lines = new ArrayList<>();
+        for (UUID uuid : dead) {
+            lines.add(uuid.toString());
+        }
+        lines.add("not-a-uuid");
+        Files.write(legacy, lines);
+
+        DeadEntitySet replayed = reload();
+        assertEquals(3, replayed.size());
+        for (UUID uuid : dead) {
+            assertTrue(replayed.contains(uuid));
+        }
+        assertFalse(Files.exists(legacy));
+        assertTrue(Files.exists(dir.resolve("dead.txt.migrated")));
+        assertEquals(HEADER_SIZE + 3L * RECORD_SIZE, Files.size(journalPath()));
+    }
+}
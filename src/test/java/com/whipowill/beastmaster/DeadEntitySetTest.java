@@ -0,0 +1,203 @@
+package com.whipowill.beastmaster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadEntitySetTest {
+
+    private static List<UUID> randomUuids(long seed, int count) {
+        Random random = new Random(seed);
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return uuids;
+    }
+
+    @Test
+    void addAndContains() {
+        DeadEntitySet set = new DeadEntitySet();
+        UUID dead = UUID.randomUUID();
+
+        assertFalse(set.contains(dead));
+        assertEquals(-1, set.getDeathTime(dead));
+
+        assertTrue(set.add(dead, 1000L));
+        assertTrue(set.contains(dead));
+        assertEquals(1000L, set.getDeathTime(dead));
+        assertEquals(1, set.size());
+        assertFalse(set.contains(UUID.randomUUID()));
+    }
+
+    @Test
+    void addingAgainKeepsTheFirstDeathTime() {
+        DeadEntitySet set = new DeadEntitySet();
+        UUID dead = UUID.randomUUID();
+
+        assertTrue(set.add(dead, 1000L));
+        assertFalse(set.add(dead, 2000L));
+        assertEquals(1000L, set.getDeathTime(dead));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void nilUuidIsKeptApartFromEmptySlots() {
+        DeadEntitySet set = new DeadEntitySet();
+        UUID nil = new UUID(0L, 0L);
+
+        assertFalse(set.contains(nil));
+        assertTrue(set.add(nil, 5L));
+        assertTrue(set.contains(nil));
+        assertEquals(5L, set.getDeathTime(nil));
+        assertFalse(set.add(nil, 6L));
+        assertEquals(1, set.size());
+
+        int[] seen = {0};
+        set.forEach((msb, lsb, deathTime) -> {
+            assertEquals(0L, msb);
+            assertEquals(0L, lsb);
+            seen[0]++;
+        });
+        assertEquals(1, seen[0]);
+    }
+
+    @Test
+    void everythingSurvivesResizing() {
+        DeadEntitySet set = new DeadEntitySet();
+        List<UUID> dead = randomUuids(42, 10_000); // Starts at 64 slots - grows many times over
+
+        for (int i = 0; i < dead.size(); i++) {
+            assertTrue(set.add(dead.get(i), i));
+        }
+        assertEquals(dead.size(), set.size());
+
+        for (int i = 0; i < dead.size(); i++) {
+            assertTrue(set.contains(dead.get(i)), "lost entry " + i);
+            assertEquals(i, set.getDeathTime(dead.get(i)));
+        }
+        // Bloom filter false positives must still come back as "not dead"
+        for (UUID alive : randomUuids(7, 10_000)) {
+            assertFalse(set.contains(alive));
+        }
+    }
+
+    @Test
+    void sequentialUuidsDoNotCollide() {
+        DeadEntitySet set = new DeadEntitySet();
+        for (long i = 1; i <= 5_000; i++) {
+            assertTrue(set.add(new UUID(0L, i), i));
+            assertTrue(set.add(new UUID(i, 0L), i));
+        }
+        assertEquals(10_000, set.size());
+        for (long i = 1; i <= 5_000; i++) {
+            assertTrue(set.contains(new UUID(0L, i)));
+            assertTrue(set.contains(new UUID(i, 0L)));
+        }
+        assertFalse(set.contains(new UUID(0L, 5_001L)));
+    }
+
+    @Test
+    void removeDiedBeforeDropsOnlyOlderEntries() {
+        DeadEntitySet set = new DeadEntitySet();
+        List<UUID> dead = randomUuids(1, 100);
+        for (int i = 0; i < dead.size(); i++) {
+            set.add(dead.get(i), i);
+        }
+        set.add(new UUID(0L, 0L), 10L);
+
+        assertEquals(51, set.removeDiedBefore(50));
+        assertEquals(50, set.size());
+        for (int i = 0; i < dead.size(); i++) {
+            assertEquals(i >= 50, set.contains(dead.get(i)), "entry " + i);
+        }
+        assertFalse(set.contains(new UUID(0L, 0L)));
+
+        // Still usable (and growable) after the rebuild
+        for (UUID more : randomUuids(2, 1_000)) {
+            assertTrue(set.add(more, 100L));
+        }
+        assertEquals(1_050, set.size());
+    }
+
+    @Test
+    void trimToNewestKeepsTheMostRecentDeaths() {
+        DeadEntitySet set = new DeadEntitySet();
+        List<UUID> dead = randomUuids(3, 200);
+        for (int i = 0; i < dead.size(); i++) {
+            set.add(dead.get(i), 1000L + i);
+        }
+
+        assertEquals(0, set.trimToNewest(0));
+        assertEquals(0, set.trimToNewest(500));
+        assertEquals(150, set.trimToNewest(50));
+        assertEquals(50, set.size());
+        for (int i = 0; i < dead.size(); i++) {
+            assertEquals(i >= 150, set.contains(dead.get(i)), "entry " + i);
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        DeadEntitySet set = new DeadEntitySet();
+        UUID first = UUID.randomUUID();
+        set.add(first, 1L);
+
+        DeadEntitySet copy = set.copy();
+        UUID second = UUID.randomUUID();
+        copy.add(second, 2L);
+        set.removeDiedBefore(10L);
+
+        assertTrue(copy.contains(first));
+        assertTrue(copy.contains(second));
+        assertFalse(set.contains(first));
+        assertFalse(set.contains(second));
+    }
+
+    // Footprint and lookup cost at 1M dead UUIDs. Only the footprint is asserted - a size
+    // regression fails the build, the timings are printed for comparison between runs
+    @Test
+    void oneMillionEntriesBenchmark() {
+        int count = 1_000_000;
+        List<UUID> dead = randomUuids(11, count);
+        List<UUID> alive = randomUuids(12, count);
+        DeadEntitySet set = new DeadEntitySet();
+        for (int i = 0; i < count; i++) {
+            set.add(dead.get(i), i);
+        }
+        assertEquals(count, set.size());
+
+        // 2^21 slots of three longs plus 8 Bloom bits per slot: exactly 50 MiB
+        long bytes = set.memoryBytes();
+        assertEquals(50L << 20, bytes);
+
+        int found = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            found += countContained(set, dead) + countContained(set, alive);
+        }
+        long start = System.nanoTime();
+        int hits = countContained(set, dead);
+        long hitNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        int misses = countContained(set, alive);
+        long missNanos = System.nanoTime() - start;
+
+        assertEquals(count, hits);
+        assertEquals(0, misses);
+        System.out.printf("DeadEntitySet at %d entries: %.1f MiB (%.1f bytes/entry), contains %.1f ns per hit, %.1f ns per miss (%d)%n",
+            count, bytes / 1048576.0, (double) bytes / count, (double) hitNanos / count, (double) missNanos / count, found);
+    }
+
+    private static int countContained(DeadEntitySet set, List<UUID> uuids) {
+        int contained = 0;
+        for (UUID uuid : uuids) {
+            if (set.contains(uuid)) contained++;
+        }
+        return contained;
+    }
+}
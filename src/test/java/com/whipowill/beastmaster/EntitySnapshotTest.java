@@ -0,0 +1,308 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtDouble;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtList;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntitySnapshotTest {
+    private static final String[] CHEST_ITEMS = {
+        "minecraft:cobblestone", "minecraft:oak_log", "minecraft:wheat", "minecraft:iron_ingot", "minecraft:torch"
+    };
+
+    // Roughly what Entity.saveNbt writes for a tamed donkey carrying a chest
+    static NbtCompound chestedDonkey(Random random, UUID owner) {
+        NbtCompound nbt = new NbtCompound();
+        nbt.putString("id", "minecraft:donkey");
+        nbt.putUuid("UUID", new UUID(random.nextLong(), random.nextLong()));
+        nbt.putUuid("Owner", owner);
+        nbt.putFloat("Health", 15 + random.nextInt(16));
+        nbt.putBoolean("Tame", true);
+        nbt.putBoolean("ChestedHorse", true);
+        nbt.putInt("Temper", 0);
+        nbt.putInt("Age", 0);
+        nbt.putBoolean("PersistenceRequired", true);
+        nbt.put("Pos", doubles(random.nextInt(2000) + 0.5, 64, random.nextInt(2000) + 0.5));
+        nbt.put("Motion", doubles(0, -0.0784, 0));
+
+        NbtList attributes = new NbtList();
+        attributes.add(attribute("minecraft:generic.max_health", 15 + random.nextInt(16)));
+        attributes.add(attribute("minecraft:generic.movement_speed", 0.175));
+        attributes.add(attribute("minecraft:horse.jump_strength", 0.5));
+        attributes.add(attribute("minecraft:generic.follow_range", 16));
+        nbt.put("Attributes", attributes);
+
+        NbtCompound brain = new NbtCompound();
+        brain.put("memories", new NbtCompound());
+        nbt.put("Brain", brain);
+        nbt.put("SaddleItem", stack("minecraft:saddle", 1, -1));
+
+        NbtList items = new NbtList();
+        for (int slot = 2; slot < 17; slot++) {
+            if (random.nextInt(4) == 0) continue; // Some slots empty
+            items.add(stack(CHEST_ITEMS[random.nextInt(CHEST_ITEMS.length)], random.nextInt(3) == 0 ? 1 + random.nextInt(64) : 64, slot));
+        }
+        nbt.put("Items", items);
+        return nbt;
+    }
+
+    private static NbtList doubles(double... values) {
+        NbtList list = new NbtList();
+        for (double value : values) {
+            list.add(NbtDouble.of(value));
+        }
+        return list;
+    }
+
+    private static NbtCompound attribute(String name, double base) {
+        NbtCompound attribute = new NbtCompound();
+        attribute.putString("Name", name);
+        attribute.putDouble("Base", base);
+        return attribute;
+    }
+
+    private static NbtCompound stack(String id, int count, int slot) {
+        NbtCompound stack = new NbtCompound();
+        stack.putString("id", id);
+        stack.putByte("Count", (byte) count);
+        if (slot >= 0) stack.putByte("Slot", (byte) slot);
+        return stack;
+    }
+
+    static byte[] serialize(NbtCompound nbt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            NbtIo.write(nbt, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    static NbtCompound deserialize(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return NbtIo.read(in);
+        }
+    }
+
+    @Test
+    void decodesToTheOriginalCompound() throws IOException {
+        NbtCompound donkey = chestedDonkey(new Random(1), UUID.randomUUID());
+        EntitySnapshot snapshot = EntitySnapshot.of(donkey.copy());
+
+        assertEquals("minecraft:donkey", snapshot.getTypeId());
+        assertEquals(donkey, snapshot.decode());
+        assertEquals(donkey, snapshot.decode()); // Decoding doesn't use the snapshot up
+    }
+
+    @Test
+    void plainBytesFromOlderSavesConvert() throws IOException {
+        NbtCompound donkey = chestedDonkey(new Random(2), UUID.randomUUID());
+        assertEquals(donkey, EntitySnapshot.fromRawBytes(serialize(donkey)).decode());
+    }
+
+    @Test
+    void roundTripsThroughASegmentsChunkTable() throws IOException {
+        Random random = new Random(4);
+        List<NbtCompound> donkeys = new ArrayList<>();
+        Map<EntitySnapshot.Chunk, Integer> chunkTable = EntitySnapshot.newChunkTable();
+        NbtList entries = new NbtList();
+        for (int i = 0; i < 3; i++) {
+            NbtCompound donkey = chestedDonkey(random, UUID.randomUUID());
+            donkeys.add(donkey);
+            entries.add(EntitySnapshot.of(donkey.copy()).writeNbt(chunkTable));
+        }
+
+        NbtCompound segment = new NbtCompound();
+        segment.put("beastmaster_entities", entries);
+        segment.put("sharedChunks", EntitySnapshot.writeChunkTable(chunkTable));
+        NbtCompound read = deserialize(serialize(segment));
+
+        List<EntitySnapshot.Chunk> chunks = EntitySnapshot.readChunkTable(read.getList("sharedChunks", 7));
+        assertEquals(chunkTable.size(), chunks.size());
+        NbtList readEntries = read.getList("beastmaster_entities", 10);
+        for (int i = 0; i < donkeys.size(); i++) {
+            EntitySnapshot snapshot = EntitySnapshot.readNbt(readEntries.getCompound(i), chunks);
+            assertEquals("minecraft:donkey", snapshot.getTypeId());
+            assertEquals(donkeys.get(i), snapshot.decode());
+        }
+    }
+
+    @Test
+    void identicalSubtreesAreKeptOnce() throws IOException {
+        Random random = new Random(5);
+        UUID owner = UUID.randomUUID();
+        EntitySnapshot first = EntitySnapshot.of(chestedDonkey(random, owner));
+        EntitySnapshot second = EntitySnapshot.of(chestedDonkey(random, owner));
+
+        // Brain, saddle, the fixed attributes and any matching chest stacks are the same objects
+        Set<EntitySnapshot.Chunk> firstChunks = identitySet(first);
+        Set<EntitySnapshot.Chunk> both = identitySet(first, second);
+        assertTrue(both.size() < firstChunks.size() + identitySet(second).size());
+
+        // Written once per segment, referenced from both entries
+        Map<EntitySnapshot.Chunk, Integer> chunkTable = EntitySnapshot.newChunkTable();
+        first.writeNbt(chunkTable);
+        second.writeNbt(chunkTable);
+        assertEquals(both.size(), chunkTable.size());
+
+        EntitySnapshot.Footprint footprint = new EntitySnapshot.Footprint();
+        footprint.add(first);
+        footprint.add(second);
+        assertEquals(2, footprint.snapshots);
+        assertEquals(first.ownBytes() + second.ownBytes(), footprint.ownBytes);
+        assertEquals(first.sharedBytes() + second.sharedBytes(), footprint.sharedBytes);
+        assertEquals(footprint.ownBytes + footprint.sharedBytes, footprint.totalBytes());
+    }
+
+    @Test
+    void corruptShellFailsToDecode() throws IOException {
+        Map<EntitySnapshot.Chunk, Integer> chunkTable = EntitySnapshot.newChunkTable();
+        NbtCompound stored = EntitySnapshot.of(chestedDonkey(new Random(6), UUID.randomUUID())).writeNbt(chunkTable);
+        List<EntitySnapshot.Chunk> chunks = EntitySnapshot.readChunkTable(EntitySnapshot.writeChunkTable(chunkTable));
+        byte[] shell = stored.getByteArray("shell");
+
+        stored.putByteArray("shell", Arrays.copyOf(shell, shell.length / 2));
+        assertThrows(IOException.class, EntitySnapshot.readNbt(stored, chunks)::decode);
+
+        byte[] garbage = shell.clone();
+        Arrays.fill(garbage, 2, garbage.length, (byte) 0x5a);
+        stored.putByteArray("shell", garbage);
+        assertThrows(IOException.class, EntitySnapshot.readNbt(stored, chunks)::decode);
+    }
+
+    // Registry footprint for 10k chested donkeys over 500 owners: the plain serialized NBT the
+    // registry used to hold against the snapshots with every shared chunk counted once
+    @Test
+    void registryFootprintBenchmark() throws IOException {
+        Random random = new Random(7);
+        long plainBytes = 0;
+        long ownBytes = 0;
+        Set<EntitySnapshot.Chunk> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        EntitySnapshot.Footprint oneOwner = new EntitySnapshot.Footprint();
+        for (int i = 0; i < 10_000; i++) {
+            NbtCompound donkey = chestedDonkey(random, new UUID(5L, i % 500));
+            plainBytes += serialize(donkey).length;
+            EntitySnapshot snapshot = EntitySnapshot.of(donkey);
+            ownBytes += snapshot.ownBytes();
+            snapshot.collectChunks(shared);
+            if (i % 500 == 0) oneOwner.add(snapshot);
+        }
+        long sharedBytes = 0;
+        for (EntitySnapshot.Chunk chunk : shared) {
+            sharedBytes += chunk.size();
+        }
+
+        long snapshotBytes = ownBytes + sharedBytes;
+        assertTrue(snapshotBytes < plainBytes);
+        System.out.printf("10000 chested donkeys: plain NBT %.2f MiB, snapshots %.2f MiB (%.2f own + %.2f in %d shared chunks), %.1fx smaller; " +
+                "one owner's 20: %d bytes own + %d shared%n",
+            plainBytes / 1048576.0, snapshotBytes / 1048576.0, ownBytes / 1048576.0, sharedBytes / 1048576.0, shared.size(),
+            (double) plainBytes / snapshotBytes, oneOwner.ownBytes, oneOwner.sharedBytes);
+    }
+
+    private static Set<EntitySnapshot.Chunk> identitySet(EntitySnapshot... snapshots) {
+        Set<EntitySnapshot.Chunk> chunks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (EntitySnapshot snapshot : snapshots) {
+            snapshot.collectChunks(chunks);
+        }
+        return chunks;
+    }
+
+    // Startup and heap for a registry of 50k chested donkeys: the old format (full entity
+    // compounds, all decoded when the world loads) against stored snapshots, which load as byte
+    // arrays and only decode on summon. Only the results are asserted - the numbers are printed
+    @Test
+    void fiftyThousandChestedMountsBenchmark() throws IOException {
+        int count = 50_000;
+        Random random = new Random(3);
+        NbtList oldEntries = new NbtList();
+        NbtList snapshotEntries = new NbtList();
+        Map<EntitySnapshot.Chunk, Integer> chunkTable = EntitySnapshot.newChunkTable();
+        for (int i = 0; i < count; i++) {
+            NbtCompound donkey = chestedDonkey(random, new UUID(4L, i / 20));
+            oldEntries.add(donkey);
+            snapshotEntries.add(EntitySnapshot.of(donkey.copy()).writeNbt(chunkTable));
+        }
+        NbtCompound oldFile = new NbtCompound();
+        oldFile.put("beastmaster_entities", oldEntries);
+        NbtCompound snapshotFile = new NbtCompound();
+        snapshotFile.put("beastmaster_entities", snapshotEntries);
+        snapshotFile.put("sharedChunks", EntitySnapshot.writeChunkTable(chunkTable));
+        byte[] oldBytes = serialize(oldFile);
+        byte[] snapshotBytes = serialize(snapshotFile);
+        oldFile = null;
+        snapshotFile = null;
+        oldEntries = null;
+        snapshotEntries = null;
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            loadDecoded(oldBytes);
+            loadSnapshots(snapshotBytes);
+        }
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        List<NbtCompound> decoded = loadDecoded(oldBytes);
+        long decodedNanos = System.nanoTime() - start;
+        long decodedHeap = usedHeap() - heapBefore;
+
+        heapBefore = usedHeap();
+        start = System.nanoTime();
+        List<EntitySnapshot> snapshots = loadSnapshots(snapshotBytes);
+        long snapshotNanos = System.nanoTime() - start;
+        long snapshotHeap = usedHeap() - heapBefore;
+
+        assertEquals(count, decoded.size());
+        assertEquals(count, snapshots.size());
+        assertEquals(decoded.get(count / 2), snapshots.get(count / 2).decode());
+        System.out.printf("%d chested donkeys: decoded at load %.0f ms / %.1f MiB heap / %.1f MiB file, " +
+                "snapshots %.0f ms / %.1f MiB heap / %.1f MiB file%n",
+            count, decodedNanos / 1e6, decodedHeap / 1048576.0, oldBytes.length / 1048576.0,
+            snapshotNanos / 1e6, snapshotHeap / 1048576.0, snapshotBytes.length / 1048576.0);
+    }
+
+    private static List<NbtCompound> loadDecoded(byte[] file) throws IOException {
+        NbtList entries = deserialize(file).getList("beastmaster_entities", 10);
+        List<NbtCompound> loaded = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            loaded.add(entries.getCompound(i));
+        }
+        return loaded;
+    }
+
+    private static List<EntitySnapshot> loadSnapshots(byte[] file) throws IOException {
+        NbtCompound nbt = deserialize(file);
+        List<EntitySnapshot.Chunk> chunks = EntitySnapshot.readChunkTable(nbt.getList("sharedChunks", 7));
+        NbtList entries = nbt.getList("beastmaster_entities", 10);
+        List<EntitySnapshot> loaded = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            loaded.add(EntitySnapshot.readNbt(entries.getCompound(i), chunks));
+        }
+        return loaded;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
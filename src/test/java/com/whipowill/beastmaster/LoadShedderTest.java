@@ -0,0 +1,117 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Default thresholds: busy 40, strained 45, critical 50, recovery 5 MSPT below the current mode's threshold
+class LoadShedderTest {
+    private static BeastPolicy policy;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        policy = BeastPolicy.compile(new BeastConfig());
+    }
+
+    private static void ticks(LoadShedder shedder, int count, float mspt) {
+        for (int i = 0; i < count; i++) {
+            shedder.update(mspt, policy);
+        }
+    }
+
+    @Test
+    void stepsUpOneModePerTick() {
+        LoadShedder shedder = new LoadShedder();
+        shedder.update(39.9f, policy);
+        assertEquals(LoadShedder.Mode.NORMAL, shedder.getMode());
+
+        shedder.update(60, policy);
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+        shedder.update(60, policy);
+        assertEquals(LoadShedder.Mode.STRAINED, shedder.getMode());
+        shedder.update(60, policy);
+        assertEquals(LoadShedder.Mode.CRITICAL, shedder.getMode());
+        shedder.update(60, policy);
+        assertEquals(LoadShedder.Mode.CRITICAL, shedder.getMode());
+        assertEquals(60, shedder.getLastMspt(), 0);
+    }
+
+    @Test
+    void stepsDownOnlyAfterTwoHundredRecoveredTicks() {
+        LoadShedder shedder = new LoadShedder();
+        shedder.update(42, policy);
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+
+        ticks(shedder, 199, 30);
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+        shedder.update(30, policy);
+        assertEquals(LoadShedder.Mode.NORMAL, shedder.getMode());
+    }
+
+    @Test
+    void oneSlowTickStartsTheCountOver() {
+        LoadShedder shedder = new LoadShedder();
+        shedder.update(42, policy);
+
+        ticks(shedder, 199, 30);
+        shedder.update(36, policy); // Below busy, but not below the recovery level
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+
+        ticks(shedder, 199, 30);
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+        shedder.update(30, policy);
+        assertEquals(LoadShedder.Mode.NORMAL, shedder.getMode());
+    }
+
+    @Test
+    void hoveringJustUnderTheThresholdKeepsTheMode() {
+        LoadShedder shedder = new LoadShedder();
+        shedder.update(42, policy);
+        ticks(shedder, 1000, 38);
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+    }
+
+    @Test
+    void stepsDownOneModeAtATime() {
+        LoadShedder shedder = new LoadShedder();
+        ticks(shedder, 3, 60);
+        assertEquals(LoadShedder.Mode.CRITICAL, shedder.getMode());
+
+        ticks(shedder, 200, 10);
+        assertEquals(LoadShedder.Mode.STRAINED, shedder.getMode());
+        ticks(shedder, 199, 10);
+        assertEquals(LoadShedder.Mode.STRAINED, shedder.getMode());
+        shedder.update(10, policy);
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+        ticks(shedder, 200, 10);
+        assertEquals(LoadShedder.Mode.NORMAL, shedder.getMode());
+    }
+
+    @Test
+    void disablingSheddingReturnsToNormal() {
+        BeastConfig config = new BeastConfig();
+        config.loadSheddingEnabled = false;
+        BeastPolicy disabled = BeastPolicy.compile(config);
+
+        LoadShedder shedder = new LoadShedder();
+        ticks(shedder, 3, 60);
+        shedder.update(60, disabled);
+        assertEquals(LoadShedder.Mode.NORMAL, shedder.getMode());
+        shedder.update(60, disabled);
+        assertEquals(LoadShedder.Mode.NORMAL, shedder.getMode());
+    }
+
+    @Test
+    void noPolicyLeavesTheModeAlone() {
+        LoadShedder shedder = new LoadShedder();
+        shedder.update(60, policy);
+        shedder.update(80, null);
+        assertEquals(LoadShedder.Mode.BUSY, shedder.getMode());
+        assertEquals(80, shedder.getLastMspt(), 0);
+    }
+}
@@ -0,0 +1,200 @@
+package com.whipowill.beastmaster;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Entries go in through the old single-file format, which fromNbt reads straight into the registry
+class PackManagerTest {
+    private static final UUID ALICE = new UUID(1L, 1L);
+    private static final UUID BOB = new UUID(1L, 2L);
+
+    private static NbtCompound entry(UUID entity, UUID owner, boolean isPet, String name, boolean alive) {
+        NbtCompound entry = new NbtCompound();
+        entry.putUuid("entityUUID", entity);
+        entry.putUuid("ownerUUID", owner);
+        entry.putBoolean("isPet", isPet);
+        entry.putLong("timestamp", 1000L);
+        entry.putBoolean("isAlive", alive);
+        if (!alive) entry.putLong("deathTime", 5000L);
+        if (name != null) entry.putString("customName", name);
+        return entry;
+    }
+
+    private static PackManager load(List<NbtCompound> entries) {
+        NbtList list = new NbtList();
+        list.addAll(entries);
+        NbtCompound nbt = new NbtCompound();
+        nbt.put("beastmaster_entities", list);
+        return PackManager.fromNbt(nbt);
+    }
+
+    private static List<UUID> uuids(List<PackManager.EntityData> entries) {
+        List<UUID> uuids = new ArrayList<>();
+        for (PackManager.EntityData data : entries) {
+            uuids.add(data.entityUuid);
+        }
+        return uuids;
+    }
+
+    private static UUID entity(long id) {
+        return new UUID(2L, id);
+    }
+
+    @Test
+    void ownerQueriesOnlySeeThatOwnersEntries() {
+        PackManager manager = load(List.of(
+            entry(entity(1), ALICE, true, "Rex", true),
+            entry(entity(2), ALICE, false, "Bucephalus", true),
+            entry(entity(3), BOB, true, "Fido", true),
+            entry(entity(4), ALICE, true, null, true)));
+
+        assertEquals(List.of(entity(1), entity(4)), uuids(manager.getPetsByOwner(ALICE)));
+        assertEquals(List.of(entity(2)), uuids(manager.getMountsByOwner(ALICE)));
+        assertEquals(List.of(entity(1), entity(4), entity(2)), uuids(manager.getEntitiesByOwner(ALICE)));
+        assertEquals(List.of(entity(3)), uuids(manager.getEntitiesByOwner(BOB)));
+        assertTrue(manager.getEntitiesByOwner(new UUID(9L, 9L)).isEmpty());
+    }
+
+    @Test
+    void namesAreMatchedWithoutCase() {
+        PackManager manager = load(List.of(
+            entry(entity(1), ALICE, true, "Rex", true),
+            entry(entity(2), ALICE, true, "rex", true),
+            entry(entity(3), ALICE, true, null, true),
+            entry(entity(4), ALICE, false, "Rex", true),
+            entry(entity(5), BOB, true, "Rex", true)));
+
+        assertEquals(List.of(entity(1), entity(2)), uuids(manager.getEntitiesByName(ALICE, true, "REX")));
+        assertEquals(List.of(entity(4)), uuids(manager.getEntitiesByName(ALICE, false, "rex")));
+        // Unnamed entities answer to "Noname" and "Unknown"
+        assertEquals(List.of(entity(3)), uuids(manager.getEntitiesByName(ALICE, true, "Noname")));
+        assertEquals(List.of(entity(3)), uuids(manager.getEntitiesByName(ALICE, true, "unknown")));
+        assertTrue(manager.getEntitiesByName(ALICE, true, "Fido").isEmpty());
+    }
+
+    @Test
+    void prefixCompletionOnlyListsLivingEntities() {
+        PackManager manager = load(List.of(
+            entry(entity(1), ALICE, true, "Rex", true),
+            entry(entity(2), ALICE, true, "Rover", false),
+            entry(entity(3), ALICE, true, "Spot", true),
+            entry(entity(4), ALICE, true, "Ranger", true)));
+
+        assertEquals(List.of("Ranger", "Rex"), manager.getNamesByPrefix(ALICE, true, "r"));
+        assertEquals(List.of("Rex"), manager.getNamesByPrefix(ALICE, true, "RE"));
+        assertTrue(manager.getNamesByPrefix(ALICE, false, "r").isEmpty());
+    }
+
+    @Test
+    void untrackingRemovesTheEntryFromEveryIndex() {
+        PackManager manager = load(List.of(
+            entry(entity(1), ALICE, true, "Rex", true),
+            entry(entity(2), ALICE, true, "Spot", true)));
+
+        manager.untrackEntity(entity(1));
+        assertFalse(manager.isEntityTracked(entity(1)));
+        assertEquals(List.of(entity(2)), uuids(manager.getEntitiesByOwner(ALICE)));
+        assertTrue(manager.getEntitiesByName(ALICE, true, "rex").isEmpty());
+        assertEquals(List.of("Spot"), manager.getNamesByPrefix(ALICE, true, ""));
+
+        manager.untrackEntity(entity(2));
+        assertTrue(manager.getEntitiesByOwner(ALICE).isEmpty());
+        assertTrue(manager.getNamesByPrefix(ALICE, true, "").isEmpty());
+    }
+
+    @Test
+    void replacedEntryIsReindexed() {
+        // The same entity twice - the later entry wins, its old name must not linger
+        PackManager manager = load(List.of(
+            entry(entity(1), ALICE, true, "Rex", true),
+            entry(entity(1), ALICE, true, "Max", true)));
+
+        assertEquals(1, manager.getEntitiesByOwner(ALICE).size());
+        assertTrue(manager.getEntitiesByName(ALICE, true, "rex").isEmpty());
+        assertEquals(List.of(entity(1)), uuids(manager.getEntitiesByName(ALICE, true, "max")));
+    }
+
+    @Test
+    void expiredDeadEntriesLeaveTheIndex() {
+        PackManager manager = load(List.of(
+            entry(entity(1), ALICE, true, "Rex", false),
+            entry(entity(2), ALICE, false, "Bucephalus", true)));
+
+        // Dead entries stay listed until their retention runs out
+        assertEquals(2, manager.getEntitiesByOwner(ALICE).size());
+        assertEquals(0, manager.expireDeadEntries(5000L + PackManager.DEAD_ENTRY_RETENTION_MS - 1));
+        assertEquals(1, manager.expireDeadEntries(5000L + PackManager.DEAD_ENTRY_RETENTION_MS));
+
+        assertFalse(manager.isEntityTracked(entity(1)));
+        assertTrue(manager.getPetsByOwner(ALICE).isEmpty());
+        assertTrue(manager.getEntitiesByName(ALICE, true, "rex").isEmpty());
+        assertEquals(List.of(entity(2)), uuids(manager.getMountsByOwner(ALICE)));
+    }
+
+    // Per-owner pet lookups for 100 players, through the index vs. the scan over every entry that
+    // getPetsByOwner used to do. Only the results are asserted - the timings are printed
+    @Test
+    void ownerLookupBenchmark() {
+        for (int size : new int[] {10_000, 100_000}) {
+            List<NbtCompound> entries = new ArrayList<>(size);
+            List<UUID> owners = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (i % 20 == 0) owners.add(new UUID(3L, i)); // 20 entries per owner
+                entries.add(entry(entity(i), owners.get(owners.size() - 1), i % 5 < 3, "Beast " + i, true));
+            }
+            PackManager manager = load(entries);
+            Map<UUID, PackManager.EntityData> entityDataMap = new HashMap<>();
+            for (PackManager.EntityData data : manager.getAllEntities()) {
+                entityDataMap.put(data.entityUuid, data);
+            }
+            List<UUID> online = owners.subList(0, 100);
+
+            long found = 0;
+            for (int warmup = 0; warmup < 5; warmup++) {
+                found += indexedLookups(manager, online) + scannedLookups(entityDataMap, online);
+            }
+            long start = System.nanoTime();
+            long indexed = indexedLookups(manager, online);
+            long indexedNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            long scanned = scannedLookups(entityDataMap, online);
+            long scanNanos = System.nanoTime() - start;
+
+            assertEquals(100 * 12, indexed);
+            assertEquals(indexed, scanned);
+            System.out.printf("getPetsByOwner with %d entries: index %.2f µs, full scan %.2f µs per player (%d)%n",
+                size, indexedNanos / 1000.0 / online.size(), scanNanos / 1000.0 / online.size(), found);
+        }
+    }
+
+    private static long indexedLookups(PackManager manager, List<UUID> owners) {
+        long found = 0;
+        for (UUID owner : owners) {
+            found += manager.getPetsByOwner(owner).size();
+        }
+        return found;
+    }
+
+    private static long scannedLookups(Map<UUID, PackManager.EntityData> entityDataMap, List<UUID> owners) {
+        long found = 0;
+        for (UUID owner : owners) {
+            List<PackManager.EntityData> pets = new ArrayList<>();
+            for (PackManager.EntityData data : entityDataMap.values()) {
+                if (data.ownerUuid.equals(owner) && data.isPet) {
+                    pets.add(data);
+                }
+            }
+            found += pets.size();
+        }
+        return found;
+    }
+}
@@ -0,0 +1,84 @@
+package com.whipowill.beastmaster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Mobs are plain names here - what still counts as targeting is up to the check passed in
+class ThreatIndexTest {
+    private static final UUID ALICE = new UUID(4L, 1L);
+    private static final UUID BOB = new UUID(4L, 2L);
+
+    @Test
+    void onlyANewPlayerTargetIsReported() {
+        ThreatIndex<String> index = new ThreatIndex<>();
+        assertTrue(index.update("zombie", ALICE));
+        assertFalse(index.update("zombie", ALICE));
+        assertTrue(index.update("zombie", BOB));
+        assertFalse(index.update("zombie", null));
+        assertFalse(index.update("skeleton", null));
+
+        assertEquals(0, index.size());
+        assertTrue(index.getThreatenedPlayers().isEmpty());
+    }
+
+    @Test
+    void switchingTargetsMovesTheMob() {
+        ThreatIndex<String> index = new ThreatIndex<>();
+        index.update("zombie", ALICE);
+        index.update("piglin", ALICE);
+        index.update("zombie", BOB);
+
+        assertEquals(List.of("piglin"), index.getThreats(ALICE, mob -> true));
+        assertEquals(List.of("zombie"), index.getThreats(BOB, mob -> true));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void readingPrunesMobsThatNoLongerCount() {
+        ThreatIndex<String> index = new ThreatIndex<>();
+        index.update("zombie", ALICE);
+        index.update("hoglin", ALICE);
+        Set<String> stillTargeting = new HashSet<>(Set.of("zombie", "hoglin"));
+
+        assertEquals(Set.of("zombie", "hoglin"), new HashSet<>(index.getThreats(ALICE, stillTargeting::contains)));
+
+        // The hoglin forgot its target (or died) - it's dropped on the next read
+        stillTargeting.remove("hoglin");
+        assertEquals(List.of("zombie"), index.getThreats(ALICE, stillTargeting::contains));
+        assertEquals(1, index.size());
+
+        // Seen targeting again (setTarget or the brain scan) - reported as new
+        assertTrue(index.update("hoglin", ALICE));
+
+        stillTargeting.clear();
+        assertTrue(index.getThreats(ALICE, stillTargeting::contains).isEmpty());
+        assertEquals(0, index.size());
+        assertTrue(index.getThreatenedPlayers().isEmpty());
+    }
+
+    @Test
+    void removingMobsAndPlayers() {
+        ThreatIndex<String> index = new ThreatIndex<>();
+        index.update("zombie", ALICE);
+        index.update("skeleton", ALICE);
+        index.update("piglin", BOB);
+
+        index.remove("zombie"); // Unloaded
+        assertEquals(List.of("skeleton"), index.getThreats(ALICE, mob -> true));
+
+        index.removePlayer(ALICE); // Logged out
+        assertEquals(List.of(BOB), index.getThreatenedPlayers());
+        assertEquals(1, index.size());
+        assertTrue(index.update("skeleton", ALICE));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.getThreats(BOB, mob -> true).isEmpty());
+    }
+}